@@ -0,0 +1,105 @@
+package com.backend.constante.benchmark;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.backend.constante.ConstanteApplication;
+
+/**
+ * Boots the whole application on an embedded H2 database and seeds it with generated data,
+ * so benchmarks measure real repository and service calls instead of mocks.
+ */
+final class BenchmarkApplication implements AutoCloseable {
+    static final String PASSWORD = "password123";
+    private static final String PASSWORD_HASH = new BCryptPasswordEncoder().encode(PASSWORD);
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+
+    private BenchmarkApplication(ConfigurableApplicationContext context){
+        this.context = context;
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    static BenchmarkApplication start(String... properties){
+        return start(context -> {}, properties);
+    }
+
+    //The initializer runs before the beans are created, e.g. to register a BeanPostProcessor.
+    static BenchmarkApplication start(ApplicationContextInitializer<ConfigurableApplicationContext> initializer, String... properties){
+        List<String> all = new ArrayList<>(List.of(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+            "logging.level.root=WARN"));
+        all.addAll(List.of(properties));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ConstanteApplication.class)
+            .properties(all.toArray(String[]::new))
+            .initializers(initializer)
+            .run();
+        return new BenchmarkApplication(context);
+    }
+
+    <T> T getBean(Class<T> type){
+        return context.getBean(type);
+    }
+
+    String baseUrl(){
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    JdbcTemplate jdbc(){
+        return jdbcTemplate;
+    }
+
+    static String email(int user){
+        return "user" + user + "@benchmark.com";
+    }
+
+    /**
+     * Inserts {@code users} users, all with {@link #PASSWORD} as password, each with {@code habitsPerUser} daily habits completed on
+     * every one of the last {@code days} days.
+     */
+    void seed(int users, int habitsPerUser, int days){
+        LocalDate today = LocalDate.now();
+
+        for(int user = 0; user < users; user++){
+            jdbcTemplate.update("insert into users (username, email, password, token_version) values (?, ?, ?, 0)",
+                "user" + user, email(user), PASSWORD_HASH);
+            Long userId = jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, email(user));
+
+            List<Object[]> habits = new ArrayList<>(habitsPerUser);
+            for(int habit = 0; habit < habitsPerUser; habit++){
+                habits.add(new Object[]{"Habit " + habit, "Seeded habit", Date.valueOf(today.minusDays(days)), "daily", userId});
+            }
+            jdbcTemplate.batchUpdate("insert into habits (name, description, made_since, frequency, user_id) values (?, ?, ?, ?, ?)", habits);
+            List<Long> habitIds = jdbcTemplate.queryForList("select id from habits where user_id = ? order by id", Long.class, userId);
+
+            List<Object[]> records = new ArrayList<>(habitsPerUser * days);
+            for(Long habitId : habitIds){
+                for(int day = 0; day < days; day++){
+                    records.add(new Object[]{userId, habitId, Date.valueOf(today.minusDays(day)), true});
+                }
+            }
+            jdbcTemplate.batchUpdate("insert into records (id, id_user, id_habit, date, completed) values (next value for records_seq, ?, ?, ?, ?)", records);
+        }
+    }
+
+    Long firstHabitOf(int user){
+        return jdbcTemplate.queryForObject(
+            "select min(h.id) from habits h join users u on u.id = h.user_id where u.email = ?", Long.class, email(user));
+    }
+
+    @Override
+    public void close(){
+        context.close();
+    }
+}
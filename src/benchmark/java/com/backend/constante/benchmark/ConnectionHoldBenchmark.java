@@ -0,0 +1,98 @@
+package com.backend.constante.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test of {@code GET /records/{habitId}} (a HATEOAS page of 30 records) from {@code @Threads} clients
+ * against a pool of {@code poolSize} connections, with open-session-in-view on and off.
+ * Besides throughput and latency, each iteration prints how long requests waited for a connection and how long
+ * they held it: with open-in-view the connection is kept while the page and its links are serialized.
+ * As in {@link VirtualThreadsBenchmark}, H2 understates query time; point it at PostgreSQL for absolute numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Threads(32)
+@Fork(1)
+public class ConnectionHoldBenchmark {
+    @Param({"true", "false"})
+    private boolean openInView;
+
+    @Param({"4"})
+    private int poolSize;
+
+    private final ConnectionTimings timings = new ConnectionTimings();
+    private BenchmarkApplication application;
+    private HttpClient client;
+    private HttpRequest findRecords;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        application = BenchmarkApplication.start(context -> context.getBeanFactory().addBeanPostProcessor(timings),
+            "spring.jpa.open-in-view=" + openInView,
+            "spring.datasource.hikari.maximum-pool-size=" + poolSize);
+        application.seed(10, 10, 60);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        HttpRequest login = HttpRequest.newBuilder(URI.create(application.baseUrl() + "/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"email\":\"" + BenchmarkApplication.email(0) + "\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\"}"))
+            .build();
+        JsonNode user = new ObjectMapper().readTree(client.send(login, HttpResponse.BodyHandlers.ofString()).body());
+
+        findRecords = HttpRequest.newBuilder(URI.create(application.baseUrl() + "/records/" + application.firstHabitOf(0) + "?size=30"))
+            .header("Authorization", "Bearer " + user.get("token").asText())
+            .GET()
+            .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTimings(){
+        timings.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printTimings(){
+        System.out.println("open-in-view=" + openInView + ": " + timings.summary());
+    }
+
+    @TearDown
+    public void tearDown(){
+        application.close();
+    }
+
+    @Benchmark
+    public int findRecords() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(findRecords, HttpResponse.BodyHandlers.ofString());
+        if(response.statusCode() != 200){
+            throw new IllegalStateException("GET /records answered " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
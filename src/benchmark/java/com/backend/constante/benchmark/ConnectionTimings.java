@@ -0,0 +1,63 @@
+package com.backend.constante.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Wraps the application's pooled DataSource to measure, per checkout, how long the caller waited
+ * for a connection and how long it held it before giving it back to the pool.
+ */
+final class ConnectionTimings implements BeanPostProcessor {
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName){
+        if(!(bean instanceof DataSource dataSource)) return bean;
+
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                long start = System.nanoTime();
+                Connection connection = super.getConnection();
+                long acquired = System.nanoTime();
+                checkouts.increment();
+                waitNanos.add(acquired - start);
+                return timed(connection, acquired);
+            }
+        };
+    }
+
+    private Connection timed(Connection connection, long acquired){
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                if("close".equals(method.getName())) holdNanos.add(System.nanoTime() - acquired);
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            });
+    }
+
+    void reset(){
+        checkouts.reset();
+        waitNanos.reset();
+        holdNanos.reset();
+    }
+
+    String summary(){
+        long count = Math.max(1, checkouts.sum());
+        return String.format("%d checkouts, average wait %.1f us, average hold %.1f us",
+            checkouts.sum(), waitNanos.sum() / 1000.0 / count, holdNanos.sum() / 1000.0 / count);
+    }
+}
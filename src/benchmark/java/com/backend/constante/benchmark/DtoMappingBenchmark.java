@@ -0,0 +1,78 @@
+package com.backend.constante.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.mappers.RecordMapper;
+import com.backend.constante.mappers.RecordMapperImpl;
+import com.backend.constante.model.Habit;
+import com.backend.constante.model.Record;
+import com.backend.constante.model.User;
+
+/**
+ * Throughput of mapping a page of records to DTOs, as done by RecordService:
+ * the reflective ModelMapper the services used to rely on versus the generated RecordMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class DtoMappingBenchmark {
+    @Param({"10000"})
+    private int records;
+
+    private List<Record> source;
+    private ModelMapper modelMapper;
+    private RecordMapper recordMapper;
+
+    @Setup
+    public void setUp(){
+        modelMapper = new ModelMapper();
+        recordMapper = new RecordMapperImpl();
+
+        User user = new User();
+        user.setId(1L);
+
+        source = new ArrayList<>(records);
+        LocalDate today = LocalDate.now();
+        for(int i = 0; i < records; i++){
+            Habit habit = new Habit();
+            habit.setId((long) (i % 50));
+            habit.setUser(user);
+
+            source.add(new Record((long) i, user, habit, today.minusDays(i / 50), true));
+        }
+    }
+
+    @Benchmark
+    public List<RecordDTO> modelMapper(){
+        return source.stream()
+                    .map(record -> modelMapper.map(record, RecordDTO.class))
+                    .toList();
+    }
+
+    @Benchmark
+    public List<RecordDTO> generatedMapper(){
+        return source.stream()
+                    .map(recordMapper::toDTO)
+                    .toList();
+    }
+}
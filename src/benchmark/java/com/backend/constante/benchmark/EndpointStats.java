@@ -0,0 +1,75 @@
+package com.backend.constante.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors of the requests made by {@link LoadTestBenchmark}, grouped by endpoint template
+ * (e.g. {@code GET /records/{habitId}}). Every latency is kept, so percentiles are exact.
+ */
+final class EndpointStats {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile long startNanos = System.nanoTime();
+
+    void record(String endpoint, long nanos, boolean error){
+        endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).record(nanos, error);
+    }
+
+    void reset(){
+        endpoints.clear();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * One line per endpoint with its requests, throughput, error rate and latency percentiles in milliseconds,
+     * over the time since the last {@link #reset()}.
+     */
+    String summary(){
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        StringBuilder summary = new StringBuilder(String.format("%-26s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for(Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()){
+            long[] latencies = entry.getValue().sorted();
+            long errors = entry.getValue().errors.sum();
+            if(latencies.length == 0) continue;
+
+            summary.append(String.format("%-26s %9d %9.1f %7.2f%%", entry.getKey(), latencies.length,
+                latencies.length / seconds, 100.0 * errors / latencies.length));
+            for(double percentile : PERCENTILES){
+                summary.append(String.format(" %9.2f", percentile(latencies, percentile) / 1e6));
+            }
+            summary.append(String.format(" %9.2f%n", latencies[latencies.length - 1] / 1e6));
+        }
+        return summary.toString();
+    }
+
+    //Nearest-rank percentile of sorted values.
+    private static long percentile(long[] sorted, double percentile){
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static final class Endpoint {
+        private final LongAdder errors = new LongAdder();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        synchronized void record(long nanos, boolean error){
+            if(size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+            latencies[size++] = nanos;
+            if(error) errors.increment();
+        }
+
+        synchronized long[] sorted(){
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
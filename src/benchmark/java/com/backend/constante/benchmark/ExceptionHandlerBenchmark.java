@@ -0,0 +1,42 @@
+package com.backend.constante.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.backend.constante.exception.handler.GlobalExceptionHandler;
+
+/**
+ * Cost of building the error body returned for every handled exception.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+    private GlobalExceptionHandler exceptionHandler;
+
+    @Setup
+    public void setUp(){
+        exceptionHandler = new GlobalExceptionHandler();
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> buildResponse(){
+        return exceptionHandler.buildResponse(HttpStatus.NOT_FOUND, "Habit with id: '1' not found.");
+    }
+}
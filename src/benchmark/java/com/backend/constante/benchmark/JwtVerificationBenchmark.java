@@ -0,0 +1,83 @@
+package com.backend.constante.benchmark;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.backend.constante.config.JwtKeyRing;
+import com.backend.constante.config.JwtUtil;
+import com.backend.constante.security.JwtVerificationCache;
+import com.backend.constante.security.VerifiedToken;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Cost of issuing a token and of authenticating a bearer token:
+ * the legacy three-parse path (reproduced inline, a new parser per parse), a single verified parse,
+ * and the verification cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private SecretKey key;
+    private JwtUtil jwtUtil;
+    private JwtVerificationCache verificationCache;
+    private String token;
+
+    @Setup
+    public void setUp(){
+        JwtKeyRing keyRing = JwtKeyRing.random();
+        key = keyRing.signingKey();
+        jwtUtil = new JwtUtil(keyRing, Duration.ofMinutes(15), Duration.ofDays(30));
+        verificationCache = new JwtVerificationCache(jwtUtil, 10_000);
+        token = jwtUtil.generateToken(1L, "example@gmail.com", 0);
+    }
+
+    @Benchmark
+    public String generateToken(){
+        return jwtUtil.generateToken(1L, "example@gmail.com", 0);
+    }
+
+    //The original filter: getEmailFromToken, then isTokenValid parsing twice more, each with a new parser.
+    @Benchmark
+    public boolean legacyThreeParses(){
+        String email = legacyClaims().getSubject();
+        return legacyClaims().getSubject().equals(email) && !legacyClaims().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public VerifiedToken singleParse(){
+        return jwtUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cachedVerification(){
+        return verificationCache.verify(token).orElseThrow();
+    }
+
+    private Claims legacyClaims(){
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,195 @@
+package com.backend.constante.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test of the whole application on the embedded H2 database: every thread is a client replaying user
+ * journeys over HTTP. A journey registers a new user ({@code registerPercent} of them, who then create their
+ * habits) or picks a seeded one, logs in, lists its habits, completes some of them on one of the last days,
+ * and browses the records of a habit and of a date.
+ * <p>
+ * The score is journeys per second; after each iteration the requests of every endpoint are printed with their
+ * throughput, error rate (unexpected status or I/O failure) and latency percentiles.
+ * Concurrency is the number of JMH threads, e.g. {@code -Djmh.args="LoadTest -t 16 -p users=1000"}.
+ * The data and each thread's choices come from fixed seeds, so runs with the same parameters replay the same
+ * journeys. As in {@link VirtualThreadsBenchmark}, H2 understates query time; point it at PostgreSQL with
+ * {@code -jvmArgsAppend -Dspring.datasource.url=jdbc:postgresql://...} for capacity numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=2, time=10)
+@Measurement(iterations=3, time=10)
+@Threads(8)
+@Fork(1)
+public class LoadTestBenchmark {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Param({"100"})
+    private int users;
+
+    @Param({"5"})
+    private int habitsPerUser;
+
+    @Param({"10"})
+    private int registerPercent;
+
+    private final EndpointStats stats = new EndpointStats();
+    private BenchmarkApplication application;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup
+    public void setUp(){
+        application = BenchmarkApplication.start();
+        application.seed(users, habitsPerUser, 60);
+        baseUrl = application.baseUrl();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStats(){
+        stats.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStats(){
+        System.out.println();
+        System.out.print(stats.summary());
+    }
+
+    @TearDown
+    public void tearDown(){
+        application.close();
+    }
+
+    /**
+     * One simulated client. Its random choices are seeded with the thread index.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private Random random;
+        private int thread;
+        private int registered;
+
+        @Setup
+        public void setUp(ThreadParams threadParams){
+            thread = threadParams.getThreadIndex();
+            random = new Random(thread);
+        }
+    }
+
+    @Benchmark
+    public int journey(Client user) throws InterruptedException {
+        LocalDate today = LocalDate.now();
+        String email;
+        boolean registering = user.random.nextInt(100) < registerPercent;
+        if(registering){
+            email = "load" + user.thread + "-" + user.registered++ + "@benchmark.com";
+            String body = "{\"email\":\"" + email + "\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\",\"username\":\"" + email + "\"}";
+            if(send("POST /user/register", post("/user/register", null, body), 201) == null) return 1;
+        } else {
+            email = BenchmarkApplication.email(user.random.nextInt(users));
+        }
+
+        String login = "{\"email\":\"" + email + "\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\"}";
+        JsonNode session = send("POST /auth/login", post("/auth/login", null, login), 200);
+        if(session == null) return 2;
+        String token = session.get("token").asText();
+        int requests = 2;
+
+        if(registering){
+            for(int habit = 0; habit < habitsPerUser; habit++){
+                String body = "{\"name\":\"Habit " + habit + "\",\"madeSince\":\"" + today.minusDays(7) + "\",\"frequency\":\"daily\"}";
+                send("POST /habits", post("/habits", token, body), 201);
+                requests++;
+            }
+        }
+
+        JsonNode habits = send("GET /habits", get("/habits", token), 200);
+        requests++;
+        if(habits == null || habits.isEmpty()) return requests;
+        List<Long> habitIds = new ArrayList<>();
+        habits.forEach(habit -> habitIds.add(habit.get("id").asLong()));
+
+        LocalDate day = today.minusDays(user.random.nextInt(7));
+        for(Long habitId : habitIds){
+            if(!user.random.nextBoolean()) continue;
+            send("POST /records/{habitId}", post("/records/" + habitId + "?date=" + day, token, null), 201, 202);
+            requests++;
+        }
+
+        Long browsed = habitIds.get(user.random.nextInt(habitIds.size()));
+        send("GET /records/{habitId}", get("/records/" + browsed + "?size=30", token), 200);
+        send("GET /records?date", get("/records?date=" + today.minusDays(user.random.nextInt(30)), token), 200);
+        return requests + 2;
+    }
+
+    private HttpRequest get(String path, String token){
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String body){
+        return request(path, token)
+            .header("Content-Type", "application/json")
+            .POST(body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody())
+            .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token){
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if(token != null) request.header("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    //Sends the request and records its latency; returns the parsed body, or null if the status was unexpected.
+    private JsonNode send(String endpoint, HttpRequest request, int... expected) throws InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException ex) {
+            stats.record(endpoint, System.nanoTime() - start, true);
+            return null;
+        }
+        long nanos = System.nanoTime() - start;
+
+        boolean ok = Arrays.stream(expected).anyMatch(status -> status == response.statusCode());
+        stats.record(endpoint, nanos, !ok);
+        if(!ok) return null;
+        try {
+            return response.body().isEmpty() ? JSON.nullNode() : JSON.readTree(response.body());
+        } catch (IOException ex) {
+            throw new IllegalStateException(endpoint + " answered a body that is not JSON", ex);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.backend.constante.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.mappers.HabitMapper;
+import com.backend.constante.mappers.RecordMapper;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.RecordRepository;
+
+/**
+ * Reads of a heavy user ({@code habits} habits with {@code days} days of history each), loading managed
+ * entities and mapping them as the services used to, versus selecting straight into DTOs.
+ * Meant to be run with {@code -prof gc} and compared on {@code gc.alloc.rate.norm} (bytes per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class ProjectionBenchmark {
+    @Param({"50"})
+    private int habits;
+
+    @Param({"1825"})
+    private int days;
+
+    private BenchmarkApplication application;
+    private HabitRepository habitRepository;
+    private RecordRepository recordRepository;
+    private HabitMapper habitMapper;
+    private RecordMapper recordMapper;
+    private Long userId;
+    private Long habitId;
+    private LocalDate date;
+    private Pageable history;
+
+    @Setup
+    public void setUp(){
+        application = BenchmarkApplication.start();
+        application.seed(1, habits, days);
+
+        habitRepository = application.getBean(HabitRepository.class);
+        recordRepository = application.getBean(RecordRepository.class);
+        habitMapper = application.getBean(HabitMapper.class);
+        recordMapper = application.getBean(RecordMapper.class);
+        userId = application.jdbc().queryForObject("select id from users where email = ?", Long.class, BenchmarkApplication.email(0));
+        habitId = application.firstHabitOf(0);
+        date = LocalDate.now().minusDays(days / 2);
+        //A whole year of one habit, the widest page a client would ask for.
+        history = PageRequest.of(0, 365, Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")));
+    }
+
+    @TearDown
+    public void tearDown(){
+        application.close();
+    }
+
+    @Benchmark
+    public List<HabitDTO> habitsAsEntities(){
+        return habitRepository.findByUserId(userId).stream()
+            .map(habitMapper::toDTO)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<HabitDTO> habitsAsProjection(){
+        return habitRepository.findDTOsByUserId(userId);
+    }
+
+    @Benchmark
+    public List<RecordDTO> recordsByDateAsEntities(){
+        return recordRepository.findByDateAndUserId(date, userId).stream()
+            .map(recordMapper::toDTO)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<RecordDTO> recordsByDateAsProjection(){
+        return recordRepository.findDTOsByDateAndUserId(date, userId);
+    }
+
+    @Benchmark
+    public List<RecordDTO> recordHistoryAsEntities(){
+        return recordRepository.findByHabitIdAndUserId(habitId, userId, history).map(recordMapper::toDTO).getContent();
+    }
+
+    @Benchmark
+    public List<RecordDTO> recordHistoryAsProjection(){
+        return recordRepository.findDTOsByHabitIdAndUserId(habitId, userId, history).getContent();
+    }
+}
@@ -0,0 +1,102 @@
+package com.backend.constante.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import com.backend.constante.dto.CursorPageDTO;
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.services.HabitService;
+import com.backend.constante.services.RecordService;
+
+/**
+ * Full service calls, repositories included, against an embedded H2 database seeded with
+ * {@code users} users that own {@code habitsPerUser} habits with {@code days} days of history each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class ServiceQueryBenchmark {
+    @Param({"100"})
+    private int users;
+
+    @Param({"10"})
+    private int habitsPerUser;
+
+    @Param({"365"})
+    private int days;
+
+    private BenchmarkApplication application;
+    private HabitService habitService;
+    private RecordService recordService;
+    private String email;
+    private Long habitId;
+    private int lastPage;
+    private String lastCursor;
+
+    @Setup
+    public void setUp(){
+        application = BenchmarkApplication.start();
+        application.seed(users, habitsPerUser, days);
+
+        habitService = application.getBean(HabitService.class);
+        recordService = application.getBean(RecordService.class);
+        email = BenchmarkApplication.email(users / 2);
+        habitId = application.firstHabitOf(users / 2);
+        lastPage = (days - 1) / 10;
+
+        //Walks the whole history once to get the cursor of the same last page.
+        String cursor = null;
+        for(int page = 0; page < lastPage; page++){
+            cursor = recordService.findRecordsByHabit(habitId, email, cursor, 10).getNextCursor();
+        }
+        lastCursor = cursor;
+    }
+
+    @TearDown
+    public void tearDown(){
+        application.close();
+    }
+
+    @Benchmark
+    public List<HabitDTO> findHabitsByUser(){
+        return habitService.findHabitsByUser(email);
+    }
+
+    @Benchmark
+    public Page<RecordDTO> findRecordsByHabitFirstPage(){
+        return recordService.findRecordsByHabit(habitId, email, 0, 10);
+    }
+
+    @Benchmark
+    public Page<RecordDTO> findRecordsByHabitLastPage(){
+        return recordService.findRecordsByHabit(habitId, email, lastPage, 10);
+    }
+
+    @Benchmark
+    public CursorPageDTO<RecordDTO> findRecordsByHabitFirstCursorPage(){
+        return recordService.findRecordsByHabit(habitId, email, null, 10);
+    }
+
+    @Benchmark
+    public CursorPageDTO<RecordDTO> findRecordsByHabitLastCursorPage(){
+        return recordService.findRecordsByHabit(habitId, email, lastCursor, 10);
+    }
+}
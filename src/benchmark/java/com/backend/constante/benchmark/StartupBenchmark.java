@@ -0,0 +1,198 @@
+package com.backend.constante.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Cold start of the packaged application: each invocation launches a new JVM and measures the time until the
+ * first {@code POST /auth/login} succeeds and records the resident set size of the process at that moment; the
+ * RSS of every boot, warmup included, is summarized after the iterations.
+ * {@code standard} runs {@code java -jar}; {@code optimized} runs like the Dockerfile, from the extracted jar with
+ * the Spring AOT initializers and a CDS archive trained in the setup.
+ * Needs the jar built with AOT: {@code ./mvnw -Pbenchmark,fast-startup verify -Djmh.args=Startup}.
+ * Every boot uses the same H2 file database, migrated and seeded with one user before the first one.
+ * RSS is read from {@code /proc}, so it is only reported on Linux.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=1)
+@Measurement(iterations=5)
+@Fork(1)
+public class StartupBenchmark {
+    private static final Path DIRECTORY = Path.of("target", "startup-benchmark");
+    private static final Duration BOOT_TIMEOUT = Duration.ofMinutes(3);
+
+    @Param({"standard", "optimized"})
+    private String mode;
+
+    @Param({"target/constant-0.0.1-SNAPSHOT.jar"})
+    private String jar;
+
+    private final List<Long> rssKilobytes = new ArrayList<>();
+    private HttpClient client;
+    private String datasourceUrl;
+    private Path workDirectory;
+    private List<String> command;
+    private Process process;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        Path jarPath = Path.of(jar).toAbsolutePath();
+        if(!Files.exists(jarPath)){
+            throw new IllegalStateException(jarPath + " not found, package the application first");
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(1)).build();
+        workDirectory = DIRECTORY.resolve(mode).toAbsolutePath();
+        deleteRecursively(workDirectory);
+        Files.createDirectories(workDirectory);
+
+        datasourceUrl = "jdbc:h2:file:" + DIRECTORY.toAbsolutePath().resolve("db")
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+        if(!Files.exists(DIRECTORY.resolve("db.mv.db"))){
+            //Added first so it wins over the in-memory URL of the test configuration on the benchmark class path.
+            MapPropertySource database = new MapPropertySource("startup-benchmark", Map.of("spring.datasource.url", datasourceUrl));
+            try(BenchmarkApplication application = BenchmarkApplication.start(context -> context.getEnvironment().getPropertySources().addFirst(database))){
+                application.seed(1, 1, 1);
+            }
+        }
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        if(mode.equals("standard")){
+            command = List.of(java, "-jar", jarPath.toString());
+            return;
+        }
+        Path application = workDirectory.resolve("application");
+        run(java, "-Djarmode=tools", "-jar", jarPath.toString(), "extract", "--destination", application.toString());
+        String extracted = application.resolve(jarPath.getFileName()).toString();
+        run(java, "-XX:ArchiveClassesAtExit=app.jsa", "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh",
+            "-jar", extracted, "--spring.datasource.url=" + datasourceUrl, "--logging.level.root=WARN");
+        command = List.of(java, "-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true", "-jar", extracted);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if(process == null) return;
+        process.destroy();
+        if(!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+        process = null;
+    }
+
+    @TearDown
+    public void report() throws InterruptedException {
+        //The invocation tear down does not run when a boot fails.
+        stop();
+        if(rssKilobytes.isEmpty()) return;
+        System.out.printf("%n%s: RSS at first login min %d MB, avg %d MB, max %d MB%n", mode,
+            rssKilobytes.stream().mapToLong(Long::longValue).min().getAsLong() / 1024,
+            (long) rssKilobytes.stream().mapToLong(Long::longValue).average().getAsDouble() / 1024,
+            rssKilobytes.stream().mapToLong(Long::longValue).max().getAsLong() / 1024);
+    }
+
+    @Benchmark
+    public int bootUntilFirstLogin() throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> boot = new ArrayList<>(command);
+        boot.add("--server.port=" + port);
+        boot.add("--spring.datasource.url=" + datasourceUrl);
+        boot.add("--logging.level.root=WARN");
+        process = new ProcessBuilder(boot)
+            .directory(workDirectory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(workDirectory.resolve("boot.log").toFile())
+            .start();
+
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"email\":\"" + BenchmarkApplication.email(0) + "\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\"}"))
+            .build();
+        long deadline = System.nanoTime() + BOOT_TIMEOUT.toNanos();
+        while(true){
+            if(System.nanoTime() > deadline){
+                throw new IllegalStateException("No successful login within " + BOOT_TIMEOUT + ", see " + workDirectory.resolve("boot.log"));
+            }
+            if(!process.isAlive()){
+                throw new IllegalStateException("The application exited, see " + workDirectory.resolve("boot.log"));
+            }
+            try {
+                HttpResponse<Void> response = client.send(login, HttpResponse.BodyHandlers.discarding());
+                if(response.statusCode() == 200) break;
+            } catch (IOException notListeningYet) {
+                //Tomcat has not bound the port yet.
+            }
+            Thread.sleep(5);
+        }
+
+        long rss = rss(process.pid());
+        if(rss > 0) rssKilobytes.add(rss);
+        return port;
+    }
+
+    //VmRSS of /proc/<pid>/status in kB, or -1 where /proc is not available.
+    private static long rss(long pid){
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try {
+            for(String line : Files.readAllLines(status)){
+                if(line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        } catch (IOException ex) {
+            return -1;
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try(ServerSocket socket = new ServerSocket(0)){
+            return socket.getLocalPort();
+        }
+    }
+
+    private void run(String... command) throws IOException, InterruptedException {
+        Process step = new ProcessBuilder(command)
+            .directory(workDirectory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(workDirectory.resolve("setup.log").toFile()))
+            .start();
+        if(step.waitFor() != 0){
+            throw new IllegalStateException(String.join(" ", command) + " failed, see " + workDirectory.resolve("setup.log"));
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if(!Files.exists(path)) return;
+        try(var paths = Files.walk(path)){
+            paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+}
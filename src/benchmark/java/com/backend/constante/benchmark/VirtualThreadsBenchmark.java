@@ -0,0 +1,88 @@
+package com.backend.constante.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Authenticated {@code GET /habits} over HTTP from {@code @Threads} concurrent clients, more than the 200
+ * Tomcat platform threads, with request handling on platform threads versus virtual threads.
+ * Reports throughput and the latency distribution (see the p0.99 line of the sample mode).
+ * Only the platform case runs by default, since the project targets Java 17; on Java 21+ compare both with
+ * {@code -Djmh.args="VirtualThreads -p virtualThreads=false,true"}.
+ * The fork traces pinned virtual threads ({@code jdk.tracePinnedThreads}), printing the stack of any
+ * {@code synchronized} block a request parks in.
+ * The embedded H2 database answers in microseconds, which understates the blocking; for a realistic comparison
+ * point it at PostgreSQL, e.g. {@code -jvmArgsAppend -Dspring.datasource.url=jdbc:postgresql://...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=5)
+@Threads(400)
+@Fork(value=1, jvmArgsAppend="-Djdk.tracePinnedThreads=short")
+public class VirtualThreadsBenchmark {
+    @Param({"false"})
+    private boolean virtualThreads;
+
+    @Param({"100"})
+    private int users;
+
+    private BenchmarkApplication application;
+    private HttpClient client;
+    private HttpRequest findHabits;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        application = BenchmarkApplication.start("spring.threads.virtual.enabled=" + virtualThreads);
+        application.seed(users, 10, 30);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        HttpRequest login = HttpRequest.newBuilder(URI.create(application.baseUrl() + "/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"email\":\"" + BenchmarkApplication.email(0) + "\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\"}"))
+            .build();
+        JsonNode user = new ObjectMapper().readTree(client.send(login, HttpResponse.BodyHandlers.ofString()).body());
+
+        findHabits = HttpRequest.newBuilder(URI.create(application.baseUrl() + "/habits"))
+            .header("Authorization", "Bearer " + user.get("token").asText())
+            .GET()
+            .build();
+    }
+
+    @TearDown
+    public void tearDown(){
+        application.close();
+    }
+
+    @Benchmark
+    public int findHabits() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(findHabits, HttpResponse.BodyHandlers.ofString());
+        if(response.statusCode() != 200){
+            throw new IllegalStateException("GET /habits answered " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
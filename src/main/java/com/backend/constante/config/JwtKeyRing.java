@@ -0,0 +1,100 @@
+package com.backend.constante.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * HMAC keys shared by every instance, indexed by key id ({@code kid}).
+ * The first key signs new tokens and every key verifies, so keys rotate without invalidating live tokens:
+ * <ol>
+ * <li>append the new key ({@code old:s1,new:s2}) on every instance, so all of them accept it;</li>
+ * <li>move it first ({@code new:s2,old:s1}), so new tokens are signed with it;</li>
+ * <li>remove the old key once the refresh token lifetime has passed.</li>
+ * </ol>
+ * Keys are built once, so verifying a token is a map lookup.
+ */
+public final class JwtKeyRing {
+    private final String signingKeyId;
+    private final Map<String, SecretKey> keys;
+
+    private JwtKeyRing(String signingKeyId, Map<String, SecretKey> keys){
+        this.signingKeyId = signingKeyId;
+        this.keys = Map.copyOf(keys);
+    }
+
+    /**
+     * @param keys comma separated {@code kid:secret} pairs, signing key first; secrets of at least 32 bytes.
+     * @throws IllegalArgumentException if an entry has no id or an id is repeated.
+     */
+    public static JwtKeyRing parse(String keys){
+        Map<String, SecretKey> ring = new LinkedHashMap<>();
+        String signingKeyId = null;
+
+        for(String entry : keys.split(",")){
+            int separator = entry.indexOf(':');
+            if(separator <= 0){
+                throw new IllegalArgumentException("JWT keys must be 'kid:secret' pairs.");
+            }
+            String kid = entry.substring(0, separator).trim();
+            SecretKey key = Keys.hmacShaKeyFor(entry.substring(separator + 1).trim().getBytes(StandardCharsets.UTF_8));
+
+            if(ring.put(kid, key) != null){
+                throw new IllegalArgumentException("Duplicate JWT key id: " + kid);
+            }
+            if(signingKeyId == null) signingKeyId = kid;
+        }
+        return new JwtKeyRing(signingKeyId, ring);
+    }
+
+    //A single secret, e.g. JWT_SECRET; its id is derived from it, so changing the secret changes the id.
+    public static JwtKeyRing ofSecret(String secret){
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        return new JwtKeyRing(fingerprint(bytes), Map.of(fingerprint(bytes), Keys.hmacShaKeyFor(bytes)));
+    }
+
+    //Key known only to this process: tokens die with it. Only for local runs and tests.
+    public static JwtKeyRing random(){
+        byte[] bytes = new byte[64];
+        new SecureRandom().nextBytes(bytes);
+        return new JwtKeyRing("local", Map.of("local", Keys.hmacShaKeyFor(bytes)));
+    }
+
+    public String signingKeyId(){
+        return signingKeyId;
+    }
+
+    public SecretKey signingKey(){
+        return keys.get(signingKeyId);
+    }
+
+    /**
+     * @throws UnsupportedJwtException if no key has that id (or the token has none).
+     */
+    public SecretKey verificationKey(String kid){
+        SecretKey key = kid != null ? keys.get(kid) : null;
+        if(key == null){
+            throw new UnsupportedJwtException("Unknown signing key: " + kid);
+        }
+        return key;
+    }
+
+    private static String fingerprint(byte[] secret){
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret);
+            return HexFormat.of().formatHex(hash, 0, 4);
+        } catch (NoSuchAlgorithmException ex) {
+            //Every JVM is required to ship SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,59 +1,131 @@
 package com.backend.constante.config;
 
-
-import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
-import javax.crypto.SecretKey;
-
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.backend.constante.security.TokenType;
+import com.backend.constante.security.VerifiedToken;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Component
 public class JwtUtil {
 
-    private final SecretKey key;
-    private final long expitarionTime = 86400000;
+    private final JwtKeyRing keyRing;
+    private final JwtParser parser;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+    private static final String TYPE_CLAIM = "typ";
 
     public JwtUtil() {
-        byte[] keyBytes = new byte[64];
-        new SecureRandom().nextBytes(keyBytes);
-        this.key = Keys.hmacShaKeyFor(keyBytes);
+        this(JwtKeyRing.random(), Duration.ofMinutes(15), Duration.ofDays(30));
+    }
+
+    /**
+     * @param keys key ring as {@code kid:secret} pairs, signing key first (see {@link JwtKeyRing}).
+     * @param secret single shared secret, used when no key ring is configured.
+     */
+    @Autowired
+    public JwtUtil(@Value("${security.jwt.keys:}") String keys,
+                @Value("${security.jwt.secret:${JWT_SECRET:}}") String secret,
+                @Value("${security.jwt.access-ttl:15m}") Duration accessTtl,
+                @Value("${security.jwt.refresh-ttl:30d}") Duration refreshTtl) {
+        this(keyRing(keys, secret), accessTtl, refreshTtl);
+    }
+
+    public JwtUtil(JwtKeyRing keyRing, Duration accessTtl, Duration refreshTtl) {
+        this.keyRing = keyRing;
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        //The parser is immutable and thread-safe, so it is built once instead of per call.
+        this.parser = Jwts.parser()
+                .keyLocator(header -> {
+                    if(!(header instanceof JwsHeader jws)){
+                        throw new UnsupportedJwtException("Unsigned tokens are not accepted.");
+                    }
+                    return keyRing.verificationKey(jws.getKeyId());
+                })
+                .build();
     }    
         
-    public String generateToken(String email) {
-    
-        String token = Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expitarionTime))
-                .signWith(key)
-                .compact();
-    
-                return token;
+    //Short-lived token that authenticates requests.
+    public String generateToken(Long userId, String email, int tokenVersion) {
+        return generate(userId, email, tokenVersion, TokenType.access, accessTtl);
     }
 
-    public String getEmailFromToken(String token) {
-        return getClaims(token).getSubject();
+    //Long-lived token only accepted by /auth/refresh to get a new pair.
+    public String generateRefreshToken(Long userId, String email, int tokenVersion) {
+        return generate(userId, email, tokenVersion, TokenType.refresh, refreshTtl);
     }
 
-    public boolean isTokenValid(String token, String email) {
-        final String emailFromToken = getEmailFromToken(token);
-        return (emailFromToken.equals(email) && !isTokenExpired(token));
+    private String generate(Long userId, String email, int tokenVersion, TokenType type, Duration ttl) {
+        long now = System.currentTimeMillis();
+
+        return Jwts.builder()
+                .header().keyId(keyRing.signingKeyId()).and()
+                .id(UUID.randomUUID().toString())
+                .subject(email)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
+                .claim(TYPE_CLAIM, type.name())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ttl.toMillis()))
+                .signWith(keyRing.signingKey())
+                .compact();
+    }
+
+    /**
+     * Parses the token and checks its signature and expiration in a single pass.
+     *
+     * @param token compact JWT taken from the Authorization header.
+     * @return the verified claims needed to authenticate the request.
+     * @throws JwtException if the token is malformed, tampered with, expired or lacks the user claims.
+     */
+    public VerifiedToken verifyToken(String token) {
+        Claims claims = getClaims(token);
+
+        if(!(claims.get(USER_ID_CLAIM) instanceof Number userId)
+                || !(claims.get(TOKEN_VERSION_CLAIM) instanceof Number tokenVersion)){
+            throw new MalformedJwtException("Token does not carry the user claims.");
+        }
+        //Tokens issued before refresh tokens existed carry no type and are access tokens.
+        TokenType type = TokenType.refresh.name().equals(claims.get(TYPE_CLAIM)) ? TokenType.refresh : TokenType.access;
+
+        return new VerifiedToken(userId.longValue(),
+                                claims.getSubject(),
+                                tokenVersion.intValue(),
+                                claims.getExpiration().toInstant(),
+                                claims.getId(),
+                                type);
     }
 
-    private boolean isTokenExpired(String token) {
-        return getClaims(token).getExpiration().before(new Date());
+    private static JwtKeyRing keyRing(String keys, String secret) {
+        if(!keys.isBlank()) return JwtKeyRing.parse(keys);
+        if(!secret.isBlank()) return JwtKeyRing.ofSecret(secret);
+
+        log.warn("No security.jwt.keys nor JWT_SECRET configured: tokens are signed with a random key and die with this instance.");
+        return JwtKeyRing.random();
     }
-    
+
         private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }   
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.backend.constante.config;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    //Reminder times are wall-clock times, read in this zone (the server's by default).
+    @Bean
+    public Clock clock(@Value("${reminders.zone:}") String zone){
+        return zone.isBlank() ? Clock.systemDefaultZone() : Clock.system(ZoneId.of(zone));
+    }
+}
@@ -35,6 +35,7 @@ public class SecurityConfig {
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/user/register").permitAll()
                 .requestMatchers("/auth/login").permitAll()
+                .requestMatchers("/auth/refresh").permitAll()
                 .requestMatchers("/habits/**").authenticated()
                 .requestMatchers("/records/**").authenticated() 
                 .anyRequest().authenticated()
@@ -1,13 +1,18 @@
 package com.backend.constante.controllers;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.backend.constante.dto.LoginRequest;
+import com.backend.constante.dto.RefreshRequest;
+import com.backend.constante.dto.ResponseDTO;
+import com.backend.constante.dto.TokenDTO;
 import com.backend.constante.dto.UserDTO;
+import com.backend.constante.security.AuthenticatedUser;
 import com.backend.constante.services.AuthService;
 
 import jakarta.validation.Valid;
@@ -25,4 +30,26 @@ public class AuthControllers {
 
         return ResponseEntity.ok(user);
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenDTO> refresh(@RequestBody RefreshRequest request){
+        TokenDTO tokens = authService.refresh(request.getRefreshToken());
+
+        return ResponseEntity.ok(tokens);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ResponseDTO> logout(@RequestBody(required=false) RefreshRequest request,
+                                            @AuthenticationPrincipal AuthenticatedUser user){
+        authService.logout(user, request != null ? request.getRefreshToken() : null);
+
+        return ResponseEntity.ok(new ResponseDTO("Logged out."));
+    }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<ResponseDTO> logoutAll(@AuthenticationPrincipal AuthenticatedUser user){
+        authService.logoutAll(user.id());
+
+        return ResponseEntity.ok(new ResponseDTO("Logged out of every device."));
+    }
 }
@@ -1,7 +1,9 @@
 package com.backend.constante.controllers;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,12 +13,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.HabitStatsDTO;
+import com.backend.constante.dto.HeatmapDTO;
 import com.backend.constante.dto.ResponseDTO;
+import com.backend.constante.dto.StreakDTO;
+import com.backend.constante.dto.TodayHabitDTO;
 import com.backend.constante.services.HabitService;
+import com.backend.constante.services.HeatmapService;
+import com.backend.constante.services.StatsService;
+import com.backend.constante.services.StreakService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +39,9 @@ import lombok.RequiredArgsConstructor;
 public class HabitControllers {
     
     private final HabitService habitService;
+    private final StreakService streakService;
+    private final HeatmapService heatmapService;
+    private final StatsService statsService;
 
     @PostMapping
     public ResponseEntity<HabitDTO> createHabit(@Valid @RequestBody HabitDTO habit, Authentication authentication){
@@ -38,27 +53,90 @@ public class HabitControllers {
     }
 
     @GetMapping
-    public ResponseEntity<List<HabitDTO>> findByUser(Authentication authentication){
+    public ResponseEntity<List<HabitDTO>> findByUser(Authentication authentication, WebRequest request){
         String email = authentication.getName();
+        //Answers 304 from the version alone; otherwise the ETag header is already set.
+        if(request.checkNotModified(habitService.findHabitsETag(email))) return null;
+
         List<HabitDTO> habits = habitService.findHabitsByUser(email);
         
         return ResponseEntity.ok(habits); 
     }
 
+    @GetMapping("/today")
+    public ResponseEntity<List<TodayHabitDTO>> findToday(@RequestParam(required=false) LocalDate date,
+                                                    Authentication authentication){
+        String email = authentication.getName();
+        List<TodayHabitDTO> habits = habitService.findTodayHabits(email, date);
+
+        return ResponseEntity.ok(habits);
+    }
+
+    @GetMapping("/heatmap")
+    public ResponseEntity<List<HeatmapDTO>> findHeatmaps(@RequestParam(required=false) Integer year,
+                                                    Authentication authentication){
+        String email = authentication.getName();
+        int targetYear = year != null ? year : LocalDate.now().getYear();
+        List<HeatmapDTO> heatmaps = heatmapService.findHeatmaps(email, targetYear);
+
+        return ResponseEntity.ok(heatmaps);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<HabitStatsDTO> findStats(@RequestParam(required=false) LocalDate date,
+                                                Authentication authentication){
+        String email = authentication.getName();
+        HabitStatsDTO stats = statsService.findUserStats(email, date != null ? date : LocalDate.now());
+
+        return ResponseEntity.ok(stats);
+    }
+
     @GetMapping("/{habitId}")
-    public ResponseEntity<HabitDTO> findById(@PathVariable Long habitId, Authentication authentication){
+    public ResponseEntity<HabitDTO> findById(@PathVariable Long habitId, Authentication authentication, WebRequest request){
         String email = authentication.getName();
+        if(request.checkNotModified(habitService.findHabitETag(habitId, email))) return null;
+
         HabitDTO habit = habitService.findHabitById(habitId, email);
 
         return ResponseEntity.ok(habit);
     }
 
+    @GetMapping("/{habitId}/streak")
+    public ResponseEntity<StreakDTO> findStreak(@PathVariable Long habitId, Authentication authentication){
+        String email = authentication.getName();
+        StreakDTO streak = streakService.findStreak(habitId, email);
+
+        return ResponseEntity.ok(streak);
+    }
+
+    @GetMapping("/{habitId}/stats")
+    public ResponseEntity<HabitStatsDTO> findHabitStats(@PathVariable Long habitId,
+                                                    @RequestParam(required=false) LocalDate date,
+                                                    Authentication authentication){
+        String email = authentication.getName();
+        HabitStatsDTO stats = statsService.findHabitStats(habitId, email, date != null ? date : LocalDate.now());
+
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/{habitId}/heatmap")
+    public ResponseEntity<HeatmapDTO> findHeatmap(@PathVariable Long habitId,
+                                                @RequestParam(required=false) Integer year,
+                                                Authentication authentication){
+        String email = authentication.getName();
+        int targetYear = year != null ? year : LocalDate.now().getYear();
+        HeatmapDTO heatmap = heatmapService.findHeatmap(habitId, email, targetYear);
+
+        return ResponseEntity.ok(heatmap);
+    }
+
     @PutMapping("/{habitId}")
     public ResponseEntity<ResponseDTO> updateHabit(@Valid @RequestBody HabitDTO habit,
                                                 @PathVariable Long habitId,
+                                                @RequestHeader(value=HttpHeaders.IF_MATCH, required=false) String ifMatch,
                                                 Authentication authentication){
         String email = authentication.getName();
-        habitService.updateHabit(email, habitId, habit);
+        habitService.updateHabit(email, habitId, habit, ifMatch);
 
         return ResponseEntity.ok(new ResponseDTO("Habit has been updated correctly."));
     }
@@ -2,10 +2,15 @@ package com.backend.constante.controllers;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,12 +18,19 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.backend.constante.dto.CompletionDTO;
+import com.backend.constante.dto.CursorPageDTO;
+import com.backend.constante.dto.DailySummaryDTO;
 import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.services.DailySummaryService;
 import com.backend.constante.services.RecordService;
+import com.backend.constante.writebehind.CompletionWriteBehind;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,24 +39,83 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class RecordController {
     private final RecordService recordService;
+    private final DailySummaryService dailySummaryService;
+    private final CompletionWriteBehind completionWriteBehind;
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<RecordDTO>> saveRecords(@RequestBody List<CompletionDTO> completions,
+                                                    Authentication authentication){
+        String email = authentication.getName();
+        List<RecordDTO> newRecords = recordService.saveRecords(email, completions);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(newRecords);
+    }
 
     @PostMapping("/{habitId}")
     public ResponseEntity<RecordDTO> saveRecord(@PathVariable Long habitId,
+                                                @RequestParam(required=false) LocalDate date,
+                                                @RequestParam(defaultValue="true") boolean completed,
                                                 Authentication authentication){
         String email = authentication.getName();
-        RecordDTO newRecord = recordService.saveRecord(email, habitId);
+        //With write-behind enabled the completion is only logged here: 202 until the flusher writes it,
+        //or 503 when its queue is full, never a direct save that could race the queued completions.
+        Optional<RecordDTO> accepted = completionWriteBehind.submit(email, habitId, date, completed);
+        if(accepted.isPresent()){
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .body(accepted.get());
+        }
+
+        RecordDTO newRecord = recordService.saveRecord(email, habitId, date, completed);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                             .body(newRecord);
     }
 
+    /**
+     * Completed and due habits of each day of the range, read from the daily summaries instead of the records.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<List<DailySummaryDTO>> findSummaries(@RequestParam LocalDate from,
+                                                            @RequestParam LocalDate to,
+                                                            Authentication authentication){
+        String email = authentication.getName();
+        List<DailySummaryDTO> summaries = dailySummaryService.findSummaries(email, from, to);
+
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * Offset pagination by default. Sending a {@code cursor} parameter (empty for the first page) switches
+     * to keyset pagination, which skips the count query; the {@code next} link then carries the cursor of the following page.
+     */
     @GetMapping("/{habitId}")
-    public ResponseEntity<PagedModel<EntityModel<RecordDTO>>> findByHabitId(@PathVariable Long habitId,
+    public ResponseEntity<CollectionModel<EntityModel<RecordDTO>>> findByHabitId(@PathVariable Long habitId,
                                                     @RequestParam(defaultValue="0") int page,
                                                     @RequestParam(defaultValue="10") int size,
+                                                    @RequestParam(required=false) String cursor,
                                                     PagedResourcesAssembler<RecordDTO> assembler,
                                                     Authentication authentication){
         String email = authentication.getName();
+
+        if(cursor != null){
+            CursorPageDTO<RecordDTO> records = recordService.findRecordsByHabit(habitId, email, cursor, size);
+
+            List<EntityModel<RecordDTO>> content = records.getContent().stream()
+                .map(EntityModel::of)
+                .collect(Collectors.toList());
+            CollectionModel<EntityModel<RecordDTO>> model = CollectionModel.of(content,
+                Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+            if(records.getNextCursor() != null){
+                String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("page")
+                    .replaceQueryParam("cursor", records.getNextCursor())
+                    .toUriString();
+                model.add(Link.of(next, IanaLinkRelations.NEXT));
+            }
+            return ResponseEntity.ok(model);
+        }
+
         Page<RecordDTO> records = recordService.findRecordsByHabit(habitId, email, page, size);
 
         PagedModel<EntityModel<RecordDTO>> pagedModel = assembler.toModel(records);
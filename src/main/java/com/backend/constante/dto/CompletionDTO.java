@@ -0,0 +1,19 @@
+package com.backend.constante.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One completion sent to {@code POST /records/batch}.
+ * {@code date} is optional and defaults to the day the batch is received.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompletionDTO {
+    private Long habitId;
+    private LocalDate date;
+}
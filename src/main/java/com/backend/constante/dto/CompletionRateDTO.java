@@ -0,0 +1,15 @@
+package com.backend.constante.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompletionRateDTO {
+    private int days;
+    private long completions;
+    private long expected;
+    private double rate;
+}
@@ -0,0 +1,28 @@
+package com.backend.constante.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Completions of a habit during the last 7, 30, 90 and 365 days, counted in a single aggregate query.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompletionWindowsDTO {
+    private Long habitId;
+    private Long last7;
+    private Long last30;
+    private Long last90;
+    private Long last365;
+
+    public long count(int days){
+        Long count = switch(days){
+            case 7 -> last7;
+            case 30 -> last30;
+            case 90 -> last90;
+            case 365 -> last365;
+            default -> throw new IllegalArgumentException("Unsupported window: " + days);
+        };
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.backend.constante.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySummaryDTO {
+    private LocalDate date;
+    private int due;
+    private int completed;
+}
@@ -0,0 +1,22 @@
+package com.backend.constante.dto;
+
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HabitStatsDTO {
+    //Null in the summary of every habit of the user.
+    private Long habitId;
+    private List<CompletionRateDTO> completionRates;
+    private Map<DayOfWeek, Long> completionsByWeekday;
+    private YearMonth bestMonth;
+    private long bestMonthCompletions;
+}
@@ -0,0 +1,19 @@
+package com.backend.constante.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Completions of a habit during a year.
+ * {@code bits} is the Base64 encoding of a 46-byte bitset where bit {@code n}
+ * (least significant bit first within each byte) is set if the habit was completed on day {@code n + 1} of the year.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HeatmapDTO {
+    private Long habitId;
+    private int year;
+    private String bits;
+}
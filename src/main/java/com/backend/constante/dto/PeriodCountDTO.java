@@ -0,0 +1,14 @@
+package com.backend.constante.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Completions grouped by a calendar period (weekday, month...) computed in SQL.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PeriodCountDTO {
+    private Integer period;
+    private Long completions;
+}
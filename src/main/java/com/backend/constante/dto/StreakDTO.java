@@ -0,0 +1,17 @@
+package com.backend.constante.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StreakDTO {
+    private Long habitId;
+    private int currentStreak;
+    private int longestStreak;
+    private LocalDate lastPeriod;
+}
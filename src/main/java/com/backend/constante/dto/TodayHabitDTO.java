@@ -0,0 +1,29 @@
+package com.backend.constante.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.backend.constante.utils.Frequency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A habit together with its status on a given day.
+ * {@code completed} tells whether it was completed that day; {@code satisfied} whether its period is already covered,
+ * which for weekly habits means any completion during the week of that day.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodayHabitDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private LocalDate madeSince;
+    private Frequency frequency;
+    private LocalTime reminderTime;
+    private boolean completed;
+    private boolean satisfied;
+}
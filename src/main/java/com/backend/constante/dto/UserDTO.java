@@ -7,4 +7,5 @@ public class UserDTO {
     private String email;
     private String username;
     private String token;
+    private String refreshToken;
 }
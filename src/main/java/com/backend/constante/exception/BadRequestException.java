@@ -0,0 +1,8 @@
+package com.backend.constante.exception;
+
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message){
+        super(message);
+    };
+}
@@ -0,0 +1,8 @@
+package com.backend.constante.exception;
+
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message){
+        super(message);
+    };
+}
@@ -0,0 +1,8 @@
+package com.backend.constante.exception;
+
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message){
+        super(message);
+    };
+}
@@ -4,14 +4,19 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.backend.constante.exception.AccessDeniedException;
+import com.backend.constante.exception.BadRequestException;
 import com.backend.constante.exception.BusinessRuleException;
+import com.backend.constante.exception.PreconditionFailedException;
 import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.exception.ServiceUnavailableException;
+import com.backend.constante.exception.TooManyRequestsException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -21,6 +26,11 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.CONFLICT, ex.getMessage());
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(BadRequestException ex){
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<Map<String, Object>> handleAccessDenied(AccessDeniedException ex){
         return buildResponse(HttpStatus.UNAUTHORIZED, ex.getMessage());
@@ -31,6 +41,27 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailed(PreconditionFailedException ex){
+        return buildResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    //A concurrent update won the race on the entity's version after the If-Match check passed.
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLocking(OptimisticLockingFailureException ex){
+        return buildResponse(HttpStatus.PRECONDITION_FAILED, "The resource has been modified.");
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(TooManyRequestsException ex){
+        return buildResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceUnavailable(ServiceUnavailableException ex){
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
     public ResponseEntity<Map<String, Object>> buildResponse(HttpStatus status, String message){
         Map<String, Object> response = new HashMap();
         response.put("error", status.getReasonPhrase());
@@ -0,0 +1,21 @@
+package com.backend.constante.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.model.Habit;
+
+@Mapper(componentModel="spring")
+public interface HabitMapper {
+
+    HabitDTO toDTO(Habit habit);
+
+    //The id is assigned by the database; copying it from the request would overwrite an existing habit.
+    @Mapping(target="id", ignore=true)
+    @Mapping(target="user", ignore=true)
+    @Mapping(target="records", ignore=true)
+    //The optimistic-lock version is only ever set by Hibernate.
+    @Mapping(target="version", ignore=true)
+    Habit toEntity(HabitDTO habit);
+}
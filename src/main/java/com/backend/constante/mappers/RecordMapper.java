@@ -0,0 +1,15 @@
+package com.backend.constante.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.model.Record;
+
+@Mapper(componentModel="spring")
+public interface RecordMapper {
+
+    //Reading the id of a lazy habit proxy does not initialize it.
+    @Mapping(target="habitId", source="habit.id")
+    RecordDTO toDTO(Record record);
+}
@@ -0,0 +1,15 @@
+package com.backend.constante.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.backend.constante.dto.UserDTO;
+import com.backend.constante.model.User;
+
+@Mapper(componentModel="spring")
+public interface UserMapper {
+
+    @Mapping(target="token", ignore=true)
+    @Mapping(target="refreshToken", ignore=true)
+    UserDTO toDTO(User user);
+}
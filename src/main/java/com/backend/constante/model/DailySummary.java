@@ -0,0 +1,43 @@
+package com.backend.constante.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rollup of one day of a user: how many habits were due that day ({@code due}, counting habits
+ * without a start date and those started on or before it, except weekly ones already completed on
+ * another day of that week) and how many of them were completed.
+ * Rows exist for the days with records; any other day has no completions.
+ */
+@Entity
+@Table(name="daily_summaries")
+@IdClass(DailySummary.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySummary {
+    @Id
+    private Long userId;
+
+    @Id
+    private LocalDate date;
+
+    private int due;
+    private int completed;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate date;
+    }
+}
@@ -5,11 +5,13 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.backend.constante.reminders.HabitReminderListener;
 import com.backend.constante.utils.Frequency;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -20,12 +22,14 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name="habits")
+@EntityListeners(HabitReminderListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -46,6 +50,9 @@ public class Habit {
     private User user;
     private LocalTime reminderTime;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy="habit", cascade=CascadeType.ALL)
     List<Record> records = new ArrayList<>();
 }
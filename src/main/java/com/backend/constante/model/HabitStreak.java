@@ -0,0 +1,28 @@
+package com.backend.constante.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary row with the streaks of a habit, maintained incrementally on every completion
+ * so clients never have to walk the whole record history.
+ */
+@Entity
+@Table(name="habit_streaks")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HabitStreak {
+    @Id
+    private Long habitId;
+    private int currentStreak;
+    private int longestStreak;
+    //First day of the last period (day or week) with a completion.
+    private LocalDate lastPeriod;
+}
@@ -0,0 +1,64 @@
+package com.backend.constante.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Completions of a habit during one calendar year, one bit per day.
+ * Bit {@code n} (least significant bit first within each byte) is set when the habit was completed
+ * on day {@code n + 1} of the year, so a whole year fits in 46 bytes.
+ */
+@Entity
+@Table(name="habit_year_bitmaps")
+@IdClass(HabitYearBitmap.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HabitYearBitmap {
+    public static final int BYTES = 46;
+
+    @Id
+    private Long habitId;
+
+    @Id
+    @Column(name="calendar_year")
+    private int year;
+
+    private Long userId;
+
+    @Column(length=BYTES, nullable=false)
+    private byte[] bits = new byte[BYTES];
+
+    public HabitYearBitmap(Long habitId, int year, Long userId){
+        this.habitId = habitId;
+        this.year = year;
+        this.userId = userId;
+    }
+
+    public void set(LocalDate date){
+        int day = date.getDayOfYear() - 1;
+        bits[day >> 3] |= (byte) (1 << (day & 7));
+    }
+
+    public void clear(LocalDate date){
+        int day = date.getDayOfYear() - 1;
+        bits[day >> 3] &= (byte) ~(1 << (day & 7));
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long habitId;
+        private int year;
+    }
+}
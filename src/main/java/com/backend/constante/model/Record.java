@@ -2,8 +2,6 @@ package com.backend.constante.model;
 
 import java.time.LocalDate;
 
-import org.hibernate.annotations.CreationTimestamp;
-
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -11,19 +9,23 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name="records")
+@Table(name="records", uniqueConstraints=@UniqueConstraint(name="uk_records_habit_user_date", columnNames={"id_habit", "id_user", "date"}))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Record {
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    //A pooled sequence lets Hibernate assign ids up front and batch the inserts, which IDENTITY cannot.
+    @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="records_seq")
+    @SequenceGenerator(name="records_seq", sequenceName="records_seq", allocationSize=50)
     private Long id;
 
     @ManyToOne(fetch=FetchType.LAZY)
@@ -34,7 +36,6 @@ public class Record {
     @JoinColumn(name="id_habit", nullable=false)
     private Habit habit;
     
-    @CreationTimestamp
     private LocalDate date;
     private Boolean completed;
 }
@@ -0,0 +1,24 @@
+package com.backend.constante.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Id of a token revoked before its expiration. Kept only until the token would have expired.
+ */
+@Entity
+@Table(name="revoked_tokens")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedToken {
+    @Id
+    private String jti;
+    private Instant expiresAt;
+}
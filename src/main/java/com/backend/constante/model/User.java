@@ -3,21 +3,30 @@ package com.backend.constante.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.backend.constante.services.UserCacheEvictionListener;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name="users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -29,9 +38,23 @@ public class User {
     private String username;
     private String email;
     private String password;
+    //Bumped to invalidate every token issued before it.
+    @Column(nullable=false)
+    @ColumnDefault("0")
+    private Integer tokenVersion = 0;
+    //Bumped with every change to the user's habits, only through UserRepository.incrementHabitsVersion.
+    @Column(nullable=false, insertable=false, updatable=false)
+    @ColumnDefault("0")
+    private Long habitsVersion = 0L;
 
     @OneToMany(mappedBy="user", cascade=CascadeType.ALL, orphanRemoval=true)
     @JsonManagedReference
     private List<Habit> habits = new ArrayList<>();
 
+    //Email as read from the database, so the listener can evict it after the email changes.
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String loadedEmail;
+
 }
@@ -0,0 +1,54 @@
+package com.backend.constante.reminders;
+
+import java.time.LocalTime;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.constante.model.Habit;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the {@link ReminderScheduler} wheel consistent with the habits table.
+ * The callbacks run when Hibernate flushes, so the wheel is only changed once the transaction commits.
+ * The scheduler is looked up lazily because entity listeners are created while the
+ * persistence unit it depends on is still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class HabitReminderListener {
+    private final ObjectProvider<ReminderScheduler> reminderScheduler;
+
+    @PostPersist
+    @PostUpdate
+    public void schedule(Habit habit){
+        Long habitId = habit.getId();
+        LocalTime time = habit.getReminderTime();
+        afterCommit(() -> reminderScheduler.getObject().schedule(habitId, time));
+    }
+
+    @PostRemove
+    public void cancel(Habit habit){
+        Long habitId = habit.getId();
+        afterCommit(() -> reminderScheduler.getObject().cancel(habitId));
+    }
+
+    private static void afterCommit(Runnable change){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.backend.constante.reminders;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default sink until a real delivery channel exists: writes each reminder to the log.
+ */
+@Slf4j
+@Component
+public class LoggingReminderSink implements ReminderSink {
+
+    @Override
+    public void deliver(Reminder reminder){
+        log.info("Reminder for habit {} ('{}') of user {} at {}",
+            reminder.habitId(), reminder.habitName(), reminder.userId(), reminder.time());
+    }
+}
@@ -0,0 +1,9 @@
+package com.backend.constante.reminders;
+
+import java.time.LocalTime;
+
+/**
+ * A reminder that is due: its time has come and the habit has no completed record today.
+ */
+public record Reminder(Long habitId, Long userId, String habitName, LocalTime time) {
+}
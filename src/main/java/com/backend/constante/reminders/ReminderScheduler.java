@@ -0,0 +1,175 @@
+package com.backend.constante.reminders;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.repositories.HabitRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fires the daily reminder of every habit with a {@code reminderTime}.
+ * Habits are indexed in a {@link TimingWheel}: it is loaded once at startup in keyset pages and then kept
+ * up to date by {@link HabitReminderListener}, so each minute only the habits due in that minute are read,
+ * by primary key, and the ones already completed today are skipped in the same query.
+ * <p>
+ * Every instance keeps its own wheel, and the listener only updates the wheel of the instance that committed
+ * the change; the others see it after their next {@link #load()}. Each delivery is claimed in
+ * {@code reminder_deliveries} first, so with several instances a reminder is still delivered at most once a day.
+ */
+@Slf4j
+@Component
+public class ReminderScheduler {
+    private final HabitRepository habitRepository;
+    private final List<ReminderSink> sinks;
+    private final Clock clock;
+    private final int batchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private TimingWheel wheel;
+
+    public ReminderScheduler(HabitRepository habitRepository,
+                            List<ReminderSink> sinks,
+                            Clock clock,
+                            @Value("${reminders.batch-size:1000}") int batchSize){
+        this.habitRepository = habitRepository;
+        this.sinks = sinks;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel(minuteOfDay(LocalTime.now(clock)));
+    }
+
+    /**
+     * Loads every habit with a reminder time into a new wheel positioned at the current minute.
+     * Habits scheduled by the listener while loading are kept as they are, since they are newer than the page read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load(){
+        lock.lock();
+        try {
+            wheel = new TimingWheel(minuteOfDay(LocalTime.now(clock)));
+        } finally {
+            lock.unlock();
+        }
+
+        Long afterId = 0L;
+        int loaded = 0;
+        List<ReminderSlot> page;
+        do {
+            page = habitRepository.findReminderSlotsAfter(afterId, Limit.of(batchSize));
+            lock.lock();
+            try {
+                for(ReminderSlot slot : page){
+                    if(!wheel.contains(slot.habitId())){
+                        wheel.schedule(slot.habitId(), minuteOfDay(slot.time()));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            loaded += page.size();
+            if(!page.isEmpty()) afterId = page.get(page.size() - 1).habitId();
+        } while(page.size() == batchSize);
+
+        log.info("Loaded {} habit reminders", loaded);
+    }
+
+    public void schedule(Long habitId, LocalTime time){
+        lock.lock();
+        try {
+            if(time == null){
+                wheel.cancel(habitId);
+            } else {
+                wheel.schedule(habitId, minuteOfDay(time));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(Long habitId){
+        lock.lock();
+        try {
+            wheel.cancel(habitId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size(){
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(cron="0 * * * * *")
+    public void tick(){
+        tick(LocalDateTime.now(clock));
+    }
+
+    /**
+     * Advances the wheel to {@code now} and delivers the reminders due since the previous tick and not claimed yet.
+     * A failing sink is logged and doesn't stop the delivery of the other reminders; the claim is kept, so it is not retried.
+     *
+     * @return the reminders delivered.
+     */
+    public List<Reminder> tick(LocalDateTime now){
+        int from;
+        int to = minuteOfDay(now.toLocalTime());
+        List<Long> due;
+        lock.lock();
+        try {
+            from = wheel.currentMinute();
+            due = wheel.advanceTo(to);
+        } finally {
+            lock.unlock();
+        }
+        if(due.isEmpty()) return List.of();
+        habitRepository.deleteReminderClaimsBefore(now.toLocalDate().minusDays(1));
+
+        List<Reminder> reminders = new ArrayList<>(due.size());
+        for(int start = 0; start < due.size(); start += batchSize){
+            List<Long> chunk = due.subList(start, Math.min(start + batchSize, due.size()));
+            for(Reminder reminder : habitRepository.findDueReminders(chunk, now.toLocalDate())){
+                //The wheel may be stale (e.g. a change made on another instance), the database has the last word on the time.
+                if(!passed(minuteOfDay(reminder.time()), from, to)) continue;
+                //Another instance with the same habit in its wheel may have delivered it already.
+                if(habitRepository.claimReminder(reminder.habitId(), now.toLocalDate()) == 1) reminders.add(reminder);
+            }
+        }
+
+        for(Reminder reminder : reminders){
+            for(ReminderSink sink : sinks){
+                try {
+                    sink.deliver(reminder);
+                } catch (RuntimeException ex) {
+                    log.warn("Could not deliver the reminder of habit {}", reminder.habitId(), ex);
+                }
+            }
+        }
+        return reminders;
+    }
+
+    private static boolean passed(int minute, int from, int to){
+        int offset = Math.floorMod(minute - from, TimingWheel.MINUTES_PER_DAY);
+        return offset > 0 && offset <= Math.floorMod(to - from, TimingWheel.MINUTES_PER_DAY);
+    }
+
+    static int minuteOfDay(LocalTime time){
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,8 @@
+package com.backend.constante.reminders;
+
+/**
+ * Delivers due reminders (push notifications, e-mail...). Every bean implementing it receives every reminder.
+ */
+public interface ReminderSink {
+    void deliver(Reminder reminder);
+}
@@ -0,0 +1,9 @@
+package com.backend.constante.reminders;
+
+import java.time.LocalTime;
+
+/**
+ * The only columns the timing wheel needs to index a habit.
+ */
+public record ReminderSlot(Long habitId, LocalTime time) {
+}
@@ -0,0 +1,103 @@
+package com.backend.constante.reminders;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Two-level timing wheel over the minutes of a day: 24 hour buckets, and 60 minute buckets for the current hour.
+ * Entries wait in their hour bucket and are spread into minute buckets when the wheel enters that hour,
+ * so advancing one minute only touches the entries due in that minute.
+ * Reminders repeat daily, so an entry goes back to its hour bucket after firing, ready for the next day.
+ * Not thread-safe; {@link ReminderScheduler} guards it with a lock.
+ */
+final class TimingWheel {
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final List<Set<Long>> hours = buckets(24);
+    private final List<Set<Long>> minutes = buckets(60);
+    private final Map<Long, Integer> minuteOfDay = new HashMap<>();
+    private int currentMinute;
+
+    /**
+     * @param currentMinute minute of the day that is considered already processed.
+     */
+    TimingWheel(int currentMinute){
+        this.currentMinute = currentMinute;
+    }
+
+    void schedule(Long habitId, int minute){
+        cancel(habitId);
+        minuteOfDay.put(habitId, minute);
+        place(habitId, minute);
+    }
+
+    boolean contains(Long habitId){
+        return minuteOfDay.containsKey(habitId);
+    }
+
+    void cancel(Long habitId){
+        Integer minute = minuteOfDay.remove(habitId);
+        if(minute == null) return;
+
+        hours.get(minute / 60).remove(habitId);
+        minutes.get(minute % 60).remove(habitId);
+    }
+
+    int currentMinute(){
+        return currentMinute;
+    }
+
+    int size(){
+        return minuteOfDay.size();
+    }
+
+    /**
+     * Moves the wheel forward to the given minute of the day, wrapping around midnight,
+     * and returns the entries due in every minute passed. A full day is the most it can advance.
+     */
+    List<Long> advanceTo(int targetMinute){
+        int steps = Math.floorMod(targetMinute - currentMinute, MINUTES_PER_DAY);
+        List<Long> due = new ArrayList<>();
+
+        for(int step = 0; step < steps; step++){
+            currentMinute = (currentMinute + 1) % MINUTES_PER_DAY;
+            int hour = currentMinute / 60;
+
+            if(currentMinute % 60 == 0){
+                Set<Long> entering = hours.get(hour);
+                for(Long habitId : entering){
+                    minutes.get(minuteOfDay.get(habitId) % 60).add(habitId);
+                }
+                entering.clear();
+            }
+
+            Set<Long> slot = minutes.get(currentMinute % 60);
+            due.addAll(slot);
+            //Same time tomorrow.
+            hours.get(hour).addAll(slot);
+            slot.clear();
+        }
+        return due;
+    }
+
+    private void place(Long habitId, int minute){
+        boolean laterThisHour = minute / 60 == currentMinute / 60 && minute > currentMinute;
+        if(laterThisHour){
+            minutes.get(minute % 60).add(habitId);
+        } else {
+            hours.get(minute / 60).add(habitId);
+        }
+    }
+
+    private static List<Set<Long>> buckets(int count){
+        List<Set<Long>> buckets = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            buckets.add(new HashSet<>());
+        }
+        return buckets;
+    }
+}
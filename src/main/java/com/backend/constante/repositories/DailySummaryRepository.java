@@ -0,0 +1,28 @@
+package com.backend.constante.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.constante.model.DailySummary;
+
+@Repository
+public interface DailySummaryRepository extends JpaRepository<DailySummary, DailySummary.Key>, DailySummaryUpsertRepository {
+    List<DailySummary> findByUserIdAndDateBetweenOrderByDate(Long userId, LocalDate from, LocalDate to);
+
+    //A null start date means the habit counts on every day.
+    @Modifying
+    @Query("update DailySummary d set d.due = d.due + :delta where d.userId = :userId and (:from is null or d.date >= :from)")
+    int addDue(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("delta") int delta);
+
+    //Must run before the records of the habit are deleted.
+    @Modifying
+    @Query("update DailySummary d set d.completed = d.completed - 1 where d.userId = :userId and d.date in " +
+           "(select r.date from Record r where r.habit.id = :habitId and r.user.id = :userId and r.completed = true)")
+    int removeCompletionsOfHabit(@Param("userId") Long userId, @Param("habitId") Long habitId);
+}
@@ -0,0 +1,36 @@
+package com.backend.constante.repositories;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Writes to {@code daily_summaries} that need SQL the JPA queries can't express:
+ * upserts that add to the current count, due counts that depend on the records of weekly habits,
+ * and rebuilds from {@code records}.
+ */
+public interface DailySummaryUpsertRepository {
+    /**
+     * Adds the given number of completions to each day of a user. A day without a row is inserted,
+     * counting its due habits from {@code habits}, and the due habits of the weeks of those days are recounted.
+     * Runs after the records are written.
+     */
+    void addCompletions(Long userId, Map<LocalDate, Integer> completionsByDate);
+
+    /**
+     * Recounts the due habits of the rows of a user from the given day on; every row if it is null.
+     */
+    void refreshDue(Long userId, LocalDate from);
+
+    /**
+     * Stops counting a habit as due on the rows of its user. Has to run while the habit and its records still exist.
+     */
+    void removeDueOfHabit(Long userId, Long habitId);
+
+    /**
+     * Replaces the rows of a user with rollups computed from its records.
+     * The caller holds the locks of the user and its habits, so no completion is counted meanwhile.
+     *
+     * @return number of rows written.
+     */
+    int rebuild(Long userId);
+}
@@ -0,0 +1,142 @@
+package com.backend.constante.repositories;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.constante.utils.Frequency;
+
+/**
+ * Upserts on the (user_id, date) key of {@code daily_summaries}, following {@link RecordUpsertRepositoryImpl}:
+ * {@code ON CONFLICT} on PostgreSQL, a standard {@code MERGE} retried on a duplicate key elsewhere.
+ * Due habits follow the rule of the today view: a habit counts from its start date, and a weekly one only on
+ * the days it was completed, or on every day of an ISO week in which it wasn't completed yet.
+ */
+public class DailySummaryUpsertRepositoryImpl implements DailySummaryUpsertRepository {
+    //Monday and Sunday of the ISO week of a date expression, in SQL understood by PostgreSQL and H2.
+    private static final String WEEK =
+        "%1$s - cast(extract(isodow from %1$s) as integer) + 1 and %1$s - cast(extract(isodow from %1$s) as integer) + 7";
+
+    //Whether habit h is due on the date expression.
+    private static final String HABIT_DUE =
+        "(h.made_since is null or h.made_since <= %1$s) and (h.frequency is null or h.frequency <> 'weekly' " +
+        "or exists (select 1 from records w where w.id_habit = h.id and w.date = %1$s and w.completed) " +
+        "or not exists (select 1 from records w where w.id_habit = h.id and w.completed and w.date between " + WEEK + "))";
+
+    private static final String DUE_HABITS = "select count(*) from habits h where h.user_id = %1$s and " + HABIT_DUE.replace("%1$s", "%2$s");
+
+    private static final String POSTGRES_UPSERT =
+        "insert into daily_summaries (user_id, date, due, completed) " +
+        "select s.user_id, s.date, (" + DUE_HABITS.formatted("s.user_id", "s.date") + "), s.completed " +
+        "from (values (cast(? as bigint), cast(? as date), cast(? as integer))) s(user_id, date, completed) " +
+        "on conflict (user_id, date) do update set completed = daily_summaries.completed + excluded.completed";
+
+    private static final String MERGE_UPSERT =
+        "merge into daily_summaries d using (values (cast(? as bigint), cast(? as date), cast(? as integer))) " +
+        "s(user_id, date, completed) " +
+        "on d.user_id = s.user_id and d.date = s.date " +
+        "when matched then update set completed = d.completed + s.completed " +
+        "when not matched then insert (user_id, date, due, completed) " +
+        "values (s.user_id, s.date, (" + DUE_HABITS.formatted("s.user_id", "s.date") + "), s.completed)";
+
+    private static final String REFRESH_DUE =
+        "update daily_summaries d set due = (" + DUE_HABITS.formatted("d.user_id", "d.date") + ") where d.user_id = ?";
+
+    private static final String REMOVE_DUE_OF_HABIT =
+        "update daily_summaries d set due = d.due - (select count(*) from habits h where h.id = ? and " +
+        HABIT_DUE.formatted("d.date") + ") where d.user_id = ?";
+
+    //The rollup of the backfill in V6__daily_summaries.sql for one user, with due counted as recounted by V8.
+    private static final String REBUILD =
+        "insert into daily_summaries (user_id, date, due, completed) " +
+        "select r.id_user, r.date, (" + DUE_HABITS.formatted("r.id_user", "r.date") + "), " +
+        "count(case when r.completed then 1 end) " +
+        "from records r where r.id_user = ? and r.date is not null " +
+        "group by r.id_user, r.date";
+
+    //Taken before a week is written, in date order, so transactions writing different days of a week queue
+    //instead of each locking its own day and then waiting for the other's in the refresh.
+    private static final String LOCK_WEEK =
+        "select date from daily_summaries where user_id = ? and date between ? and ? order by date for update";
+
+    private static final String DELETE_USER = "delete from daily_summaries where user_id = ?";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public DailySummaryUpsertRepositoryImpl(JdbcTemplate jdbcTemplate){
+        this.jdbcTemplate = jdbcTemplate;
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    @Override
+    public void addCompletions(Long userId, Map<LocalDate, Integer> completionsByDate){
+        List<Object[]> rows = new ArrayList<>();
+        Set<LocalDate> weeks = new TreeSet<>();
+        new TreeMap<>(completionsByDate).forEach((date, completed) -> {
+            rows.add(new Object[]{userId, Date.valueOf(date), completed});
+            weeks.add(Frequency.weekly.periodStart(date));
+        });
+        for(LocalDate monday : weeks){
+            jdbcTemplate.queryForList(LOCK_WEEK, Date.class, userId, Date.valueOf(monday), Date.valueOf(monday.plusDays(6)));
+        }
+
+        if(postgres){
+            jdbcTemplate.batchUpdate(POSTGRES_UPSERT, rows);
+        } else {
+            //Replaying a batch after a collision would add its counts twice, so each row is retried on its own.
+            for(Object[] row : rows){
+                retryOnDuplicateKey(() -> jdbcTemplate.update(MERGE_UPSERT, row));
+            }
+        }
+        //A weekly completion also decides whether the habit is due on the other days of its week.
+        for(LocalDate monday : weeks){
+            jdbcTemplate.update(REFRESH_DUE + " and d.date between ? and ?", userId, Date.valueOf(monday), Date.valueOf(monday.plusDays(6)));
+        }
+    }
+
+    @Override
+    public void refreshDue(Long userId, LocalDate from){
+        if(from == null){
+            jdbcTemplate.update(REFRESH_DUE, userId);
+            return;
+        }
+        jdbcTemplate.update(REFRESH_DUE + " and d.date >= ?", userId, Date.valueOf(from));
+    }
+
+    @Override
+    public void removeDueOfHabit(Long userId, Long habitId){
+        jdbcTemplate.update(REMOVE_DUE_OF_HABIT, habitId, userId);
+    }
+
+    @Override
+    public int rebuild(Long userId){
+        jdbcTemplate.update(DELETE_USER, userId);
+        return jdbcTemplate.update(REBUILD, userId);
+    }
+
+    private <T> T retryOnDuplicateKey(Supplier<T> statement){
+        for(int attempt = 1; ; attempt++){
+            try {
+                return statement.get();
+            } catch (DuplicateKeyException ex) {
+                if(attempt == MAX_ATTEMPTS) throw ex;
+            }
+        }
+    }
+}
@@ -1,16 +1,92 @@
 package com.backend.constante.repositories;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.TodayHabitDTO;
 import com.backend.constante.model.Habit;
-import com.backend.constante.model.User;
+import com.backend.constante.reminders.Reminder;
+import com.backend.constante.reminders.ReminderSlot;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
-public interface HabitRepository extends JpaRepository<Habit, Long> {
-    List<Habit> findByUser(User user);
-    Optional<Habit> findByIdAndUser(Long habitId, User user);
+public interface HabitRepository extends JpaRepository<Habit, Long>, ReminderClaimRepository {
+    //Explicit queries filter on the foreign key columns; the derived ones joined users and scanned habits.
+    @Query("select h from Habit h where h.user.id = :userId")
+    List<Habit> findByUserId(@Param("userId") Long userId);
+
+    //Read-only projection: no managed entities, only the columns of the DTO.
+    @Query("select new com.backend.constante.dto.HabitDTO(h.id, h.name, h.description, h.madeSince, h.frequency, h.reminderTime) " +
+           "from Habit h where h.user.id = :userId")
+    List<HabitDTO> findDTOsByUserId(@Param("userId") Long userId);
+
+    //Every habit of the user with its completions of one week, in a single LEFT JOIN served by uk_records_habit_user_date.
+    @Query("select new com.backend.constante.dto.TodayHabitDTO(h.id, h.name, h.description, h.madeSince, h.frequency, h.reminderTime, " +
+           "case when max(case when r.date = :date then 1 else 0 end) = 1 then true else false end, " +
+           "case when max(case when r.date = :date then 1 else 0 end) = 1 then true " +
+           "when h.frequency = com.backend.constante.utils.Frequency.weekly and count(r) > 0 then true else false end) " +
+           "from Habit h left join h.records r on r.user.id = :userId and r.completed = true and r.date between :weekStart and :weekEnd " +
+           "where h.user.id = :userId " +
+           "group by h.id, h.name, h.description, h.madeSince, h.frequency, h.reminderTime " +
+           "order by h.id")
+    List<TodayHabitDTO> findTodayDTOsByUserId(@Param("userId") Long userId,
+                                            @Param("date") LocalDate date,
+                                            @Param("weekStart") LocalDate weekStart,
+                                            @Param("weekEnd") LocalDate weekEnd);
+
+    @Query("select h from Habit h where h.id = :habitId and h.user.id = :userId")
+    Optional<Habit> findByIdAndUserId(@Param("habitId") Long habitId, @Param("userId") Long userId);
+
+    @Query("select h.version from Habit h where h.id = :habitId and h.user.id = :userId")
+    Optional<Long> findVersionByIdAndUserId(@Param("habitId") Long habitId, @Param("userId") Long userId);
+
+    @Query("select case when count(h) > 0 then true else false end from Habit h where h.id = :habitId and h.user.id = :userId")
+    boolean existsByIdAndUserId(@Param("habitId") Long habitId, @Param("userId") Long userId);
+
+    //Serializes the completions of a habit, so its streak and heatmap rows are updated one at a time.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Habit h where h.id = :habitId and h.user.id = :userId")
+    Optional<Habit> findWithLockByIdAndUserId(@Param("habitId") Long habitId, @Param("userId") Long userId);
+
+    //Locked in id order, so two batches sharing habits can't deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Habit h where h.id in :habitIds and h.user.id = :userId order by h.id")
+    List<Habit> findWithLockByIdInAndUserId(@Param("habitIds") Collection<Long> habitIds, @Param("userId") Long userId);
+
+    //Every habit of the user, locked in id order like the batches above.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h.id from Habit h where h.user.id = :userId order by h.id")
+    List<Long> findIdsWithLockByUserId(@Param("userId") Long userId);
+
+    @Query("select h.id from Habit h where h.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    //Keyset page over the primary key, so loading the reminder wheel never re-reads skipped rows.
+    @Query("select new com.backend.constante.reminders.ReminderSlot(h.id, h.reminderTime) from Habit h " +
+           "where h.id > :afterId and h.reminderTime is not null order by h.id")
+    List<ReminderSlot> findReminderSlotsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    //The habits due this minute that have no completed record on the date.
+    @Query("select new com.backend.constante.reminders.Reminder(h.id, h.user.id, h.name, h.reminderTime) from Habit h " +
+           "where h.id in :habitIds and h.reminderTime is not null and not exists (" +
+           "select r.id from Record r where r.habit.id = h.id and r.user.id = h.user.id and r.date = :date and r.completed = true)")
+    List<Reminder> findDueReminders(@Param("habitIds") Collection<Long> habitIds, @Param("date") LocalDate date);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from reminder_deliveries where date < :date", nativeQuery=true)
+    int deleteReminderClaimsBefore(@Param("date") LocalDate date);
 }
@@ -0,0 +1,17 @@
+package com.backend.constante.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import com.backend.constante.model.HabitStreak;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface HabitStreakRepository extends JpaRepository<HabitStreak, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<HabitStreak> findWithLockByHabitId(Long habitId);
+}
@@ -0,0 +1,29 @@
+package com.backend.constante.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.constante.model.HabitYearBitmap;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface HabitYearBitmapRepository extends JpaRepository<HabitYearBitmap, HabitYearBitmap.Key> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<HabitYearBitmap> findWithLockByHabitIdAndYear(Long habitId, int year);
+
+    Optional<HabitYearBitmap> findByHabitIdAndYear(Long habitId, int year);
+
+    List<HabitYearBitmap> findByUserIdAndYear(Long userId, int year);
+
+    @Modifying
+    @Query("delete from HabitYearBitmap b where b.habitId = :habitId")
+    void deleteByHabitId(@Param("habitId") Long habitId);
+}
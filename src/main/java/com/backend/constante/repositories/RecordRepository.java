@@ -1,19 +1,131 @@
 package com.backend.constante.repositories;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.backend.constante.model.Habit;
+import com.backend.constante.dto.CompletionWindowsDTO;
+import com.backend.constante.dto.PeriodCountDTO;
+import com.backend.constante.dto.RecordDTO;
 import com.backend.constante.model.Record;
-import com.backend.constante.model.User;
 
 @Repository
-public interface RecordRepository extends  JpaRepository<Record, Long>{
-    Page<Record> findByHabitAndUser(Habit habit, User user, Pageable pageable);
-    List<Record> findByDateAndUser(LocalDate date, User user);
+public interface RecordRepository extends  JpaRepository<Record, Long>, RecordUpsertRepository{
+    //Explicit queries filter on the foreign key columns; the derived ones joined habits and users and scanned records.
+    @Query("select r from Record r where r.habit.id = :habitId and r.user.id = :userId")
+    Page<Record> findByHabitIdAndUserId(@Param("habitId") Long habitId, @Param("userId") Long userId, Pageable pageable);
+
+    //Keyset pages over the history of a habit, newest first. Served by the (id_habit, id_user, date) unique index.
+    @Query("select r from Record r where r.habit.id = :habitId and r.user.id = :userId order by r.date desc, r.id desc")
+    List<Record> findByHabitIdAndUserIdOrderByDateDescIdDesc(@Param("habitId") Long habitId, @Param("userId") Long userId, Limit limit);
+
+    @Query("select r from Record r where r.habit.id = :habitId and r.user.id = :userId " +
+           "and (r.date < :date or (r.date = :date and r.id < :id)) order by r.date desc, r.id desc")
+    List<Record> findPageAfter(@Param("habitId") Long habitId,
+                                @Param("userId") Long userId,
+                                @Param("date") LocalDate date,
+                                @Param("id") Long id,
+                                Limit limit);
+
+    @Query("select r from Record r where r.date = :date and r.user.id = :userId")
+    List<Record> findByDateAndUserId(@Param("date") LocalDate date, @Param("userId") Long userId);
+
+    //Read-only projections: no managed entities, only the columns of the DTO.
+    @Query(value="select new com.backend.constante.dto.RecordDTO(r.habit.id, r.date, r.completed) from Record r " +
+                 "where r.habit.id = :habitId and r.user.id = :userId",
+           countQuery="select count(r) from Record r where r.habit.id = :habitId and r.user.id = :userId")
+    Page<RecordDTO> findDTOsByHabitIdAndUserId(@Param("habitId") Long habitId, @Param("userId") Long userId, Pageable pageable);
+
+    @Query("select new com.backend.constante.dto.RecordDTO(r.habit.id, r.date, r.completed) from Record r " +
+           "where r.date = :date and r.user.id = :userId")
+    List<RecordDTO> findDTOsByDateAndUserId(@Param("date") LocalDate date, @Param("userId") Long userId);
+
+    @Query("select new com.backend.constante.dto.RecordDTO(r.habit.id, r.date, r.completed) from Record r " +
+           "where r.habit.id in :habitIds and r.user.id = :userId and r.date in :dates and r.completed = true")
+    List<RecordDTO> findCompletedDTOsByHabitIdInAndUserIdAndDateIn(@Param("habitIds") Collection<Long> habitIds,
+                                                                  @Param("userId") Long userId,
+                                                                  @Param("dates") Collection<LocalDate> dates);
+
+    //Completions of the user's weekly habits, which stop being due for the rest of their week.
+    @Query("select new com.backend.constante.dto.RecordDTO(r.habit.id, r.date, r.completed) from Record r " +
+           "where r.user.id = :userId and r.completed = true and r.date between :from and :to " +
+           "and r.habit.frequency = com.backend.constante.utils.Frequency.weekly")
+    List<RecordDTO> findCompletedDTOsOfWeeklyHabitsByUserIdBetween(@Param("userId") Long userId,
+                                                                  @Param("from") LocalDate from,
+                                                                  @Param("to") LocalDate to);
+
+    @Query("select distinct r.date from Record r where r.habit.id = :habitId and r.completed = true order by r.date")
+    List<LocalDate> findCompletedDatesByHabitId(@Param("habitId") Long habitId);
+
+    @Query("select distinct r.date from Record r where r.habit.id = :habitId and r.completed = true and r.date between :from and :to")
+    List<LocalDate> findCompletedDatesByHabitIdBetween(@Param("habitId") Long habitId,
+                                                        @Param("from") LocalDate from,
+                                                        @Param("to") LocalDate to);
+
+    //Period a completion counts for: its day, or the Monday of its ISO week for a weekly habit (HQL numbers Sunday 1).
+    String COMPLETED_PERIOD = "case when r.habit.frequency = com.backend.constante.utils.Frequency.weekly " +
+                              "then r.date - (mod(extract(day of week from r.date) + 5, 7)) day else r.date end";
+
+    //Statistics: aggregates over the index ranges of one habit or one user, returning a few numbers instead of records.
+    //Periods with a completion are counted, so extra completions in one week can't make up for an empty one.
+    @Query("select new com.backend.constante.dto.CompletionWindowsDTO(r.habit.id, " +
+           "count(distinct case when r.date >= :from7 then " + COMPLETED_PERIOD + " end), " +
+           "count(distinct case when r.date >= :from30 then " + COMPLETED_PERIOD + " end), " +
+           "count(distinct case when r.date >= :from90 then " + COMPLETED_PERIOD + " end), " +
+           "count(distinct " + COMPLETED_PERIOD + ")) " +
+           "from Record r where r.habit.id = :habitId and r.user.id = :userId and r.completed = true " +
+           "and r.date between :from365 and :today group by r.habit.id")
+    List<CompletionWindowsDTO> countCompletionWindowsByHabit(@Param("habitId") Long habitId,
+                                                            @Param("userId") Long userId,
+                                                            @Param("from7") LocalDate from7,
+                                                            @Param("from30") LocalDate from30,
+                                                            @Param("from90") LocalDate from90,
+                                                            @Param("from365") LocalDate from365,
+                                                            @Param("today") LocalDate today);
+
+    @Query("select new com.backend.constante.dto.CompletionWindowsDTO(r.habit.id, " +
+           "count(distinct case when r.date >= :from7 then " + COMPLETED_PERIOD + " end), " +
+           "count(distinct case when r.date >= :from30 then " + COMPLETED_PERIOD + " end), " +
+           "count(distinct case when r.date >= :from90 then " + COMPLETED_PERIOD + " end), " +
+           "count(distinct " + COMPLETED_PERIOD + ")) " +
+           "from Record r where r.user.id = :userId and r.completed = true " +
+           "and r.date between :from365 and :today group by r.habit.id")
+    List<CompletionWindowsDTO> countCompletionWindowsByUser(@Param("userId") Long userId,
+                                                            @Param("from7") LocalDate from7,
+                                                            @Param("from30") LocalDate from30,
+                                                            @Param("from90") LocalDate from90,
+                                                            @Param("from365") LocalDate from365,
+                                                            @Param("today") LocalDate today);
+
+    //Day of week as numbered by HQL: 1 is Sunday, 7 is Saturday.
+    @Query("select new com.backend.constante.dto.PeriodCountDTO(extract(day of week from r.date), count(r)) " +
+           "from Record r where r.habit.id = :habitId and r.user.id = :userId and r.completed = true " +
+           "group by extract(day of week from r.date)")
+    List<PeriodCountDTO> countCompletionsByWeekdayOfHabit(@Param("habitId") Long habitId, @Param("userId") Long userId);
+
+    @Query("select new com.backend.constante.dto.PeriodCountDTO(extract(day of week from r.date), count(r)) " +
+           "from Record r where r.user.id = :userId and r.completed = true " +
+           "group by extract(day of week from r.date)")
+    List<PeriodCountDTO> countCompletionsByWeekdayOfUser(@Param("userId") Long userId);
+
+    //Month as year * 100 + month, most completions first and the latest month on ties.
+    @Query("select new com.backend.constante.dto.PeriodCountDTO(extract(year from r.date) * 100 + extract(month from r.date), count(r)) " +
+           "from Record r where r.habit.id = :habitId and r.user.id = :userId and r.completed = true " +
+           "group by extract(year from r.date) * 100 + extract(month from r.date) " +
+           "order by count(r) desc, extract(year from r.date) * 100 + extract(month from r.date) desc")
+    List<PeriodCountDTO> findBestMonthsOfHabit(@Param("habitId") Long habitId, @Param("userId") Long userId, Limit limit);
+
+    @Query("select new com.backend.constante.dto.PeriodCountDTO(extract(year from r.date) * 100 + extract(month from r.date), count(r)) " +
+           "from Record r where r.user.id = :userId and r.completed = true " +
+           "group by extract(year from r.date) * 100 + extract(month from r.date) " +
+           "order by count(r) desc, extract(year from r.date) * 100 + extract(month from r.date) desc")
+    List<PeriodCountDTO> findBestMonthsOfUser(@Param("userId") Long userId, Limit limit);
 }
@@ -0,0 +1,24 @@
+package com.backend.constante.repositories;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes to {@code records} keyed by (habit, user, date) instead of by id, so repeated or
+ * concurrent saves of the same completion update a single row.
+ */
+public interface RecordUpsertRepository {
+    /**
+     * Inserts the record of a habit on a day, or updates {@code completed} if it already exists.
+     *
+     * @return whether the completion state changed; a missing record counts as not completed.
+     */
+    boolean upsert(Long userId, Long habitId, LocalDate date, boolean completed);
+
+    /**
+     * Same as {@link #upsert(Long, Long, LocalDate, boolean)} for several habits and days,
+     * sent as a single JDBC batch.
+     */
+    void upsertAll(Long userId, Map<Long, Set<LocalDate>> datesByHabit, boolean completed);
+}
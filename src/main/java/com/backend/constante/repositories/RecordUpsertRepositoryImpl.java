@@ -0,0 +1,88 @@
+package com.backend.constante.repositories;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Single-statement upserts on the unique (id_habit, id_user, date) key of {@code records}.
+ * PostgreSQL resolves conflicts atomically with {@code ON CONFLICT}. Other databases (H2 in tests)
+ * use a standard {@code MERGE}, where two transactions inserting the same key at once can still
+ * collide on the unique constraint; the loser simply runs the statement again and takes the update branch.
+ * A single upsert also reports the previous state of the row: PostgreSQL returns the rows it inserted or
+ * changed, telling them apart by {@code xmax}, and H2 returns the rows the {@code MERGE} updated, as they were before.
+ */
+public class RecordUpsertRepositoryImpl implements RecordUpsertRepository {
+    private static final String POSTGRES_UPSERT =
+        "insert into records (id, id_user, id_habit, date, completed) values (nextval('records_seq'), ?, ?, ?, ?) " +
+        "on conflict (id_habit, id_user, date) do update set completed = excluded.completed";
+
+    //Only rows whose state changes are written and returned; xmax is 0 for a row this statement inserted.
+    private static final String POSTGRES_CHANGE =
+        POSTGRES_UPSERT + " where records.completed is distinct from excluded.completed returning (xmax = 0) as inserted";
+
+    private static final String MERGE_UPSERT =
+        "merge into records r using (values (cast(? as bigint), cast(? as bigint), cast(? as date), cast(? as boolean))) " +
+        "s(id_user, id_habit, date, completed) " +
+        "on r.id_habit = s.id_habit and r.id_user = s.id_user and r.date = s.date " +
+        "when matched then update set completed = s.completed " +
+        "when not matched then insert (id, id_user, id_habit, date, completed) " +
+        "values (next value for records_seq, s.id_user, s.id_habit, s.date, s.completed)";
+
+    private static final String MERGE_CHANGE = "select completed from old table (" + MERGE_UPSERT + ")";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+    private final String upsertSql;
+
+    public RecordUpsertRepositoryImpl(JdbcTemplate jdbcTemplate){
+        this.jdbcTemplate = jdbcTemplate;
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        this.postgres = "PostgreSQL".equals(product);
+        this.upsertSql = postgres ? POSTGRES_UPSERT : MERGE_UPSERT;
+    }
+
+    @Override
+    public boolean upsert(Long userId, Long habitId, LocalDate date, boolean completed){
+        Object[] args = {userId, habitId, Date.valueOf(date), completed};
+        if(postgres){
+            //No row: the state was already the same. Inserted: it changes if completed. Updated: it changed.
+            return jdbcTemplate.query(POSTGRES_CHANGE, rs -> rs.next() && (!rs.getBoolean(1) || completed), args);
+        }
+        //The previous row, if the MERGE matched one; a new row changes the state if completed.
+        return retryOnDuplicateKey(() ->
+            jdbcTemplate.query(MERGE_CHANGE, rs -> rs.next() ? rs.getBoolean(1) != completed : completed, args));
+    }
+
+    @Override
+    public void upsertAll(Long userId, Map<Long, Set<LocalDate>> datesByHabit, boolean completed){
+        List<Object[]> rows = new ArrayList<>();
+        datesByHabit.forEach((habitId, dates) -> dates.forEach(date ->
+            rows.add(new Object[]{userId, habitId, Date.valueOf(date), completed})));
+
+        //Every row is an upsert, so replaying the whole batch after a collision is harmless.
+        retryOnDuplicateKey(() -> jdbcTemplate.batchUpdate(upsertSql, rows));
+    }
+
+    private <T> T retryOnDuplicateKey(Supplier<T> statement){
+        for(int attempt = 1; ; attempt++){
+            try {
+                return statement.get();
+            } catch (DuplicateKeyException ex) {
+                if(attempt == MAX_ATTEMPTS) throw ex;
+            }
+        }
+    }
+}
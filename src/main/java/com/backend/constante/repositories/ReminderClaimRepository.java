@@ -0,0 +1,19 @@
+package com.backend.constante.repositories;
+
+import java.time.LocalDate;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Claims of the reminders delivered each day, so instances ticking the same habits deliver each reminder once.
+ */
+public interface ReminderClaimRepository {
+    /**
+     * Inserts the (habit, date) claim unless it is already there, even if inserted by a concurrent transaction,
+     * which is waited for.
+     *
+     * @return 1 if this call claimed the reminder, 0 if another instance already delivered it that day.
+     */
+    @Transactional
+    int claimReminder(Long habitId, LocalDate date);
+}
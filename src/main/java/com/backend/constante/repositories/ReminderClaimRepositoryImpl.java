@@ -0,0 +1,51 @@
+package com.backend.constante.repositories;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Insert-if-absent on the primary key of {@code reminder_deliveries}, like {@link RevokedTokenInsertRepositoryImpl}:
+ * {@code ON CONFLICT DO NOTHING} on PostgreSQL, a standard {@code MERGE} retried on a duplicate key elsewhere.
+ */
+public class ReminderClaimRepositoryImpl implements ReminderClaimRepository {
+    private static final String POSTGRES_INSERT =
+        "insert into reminder_deliveries (date, habit_id) values (?, ?) on conflict do nothing";
+
+    private static final String MERGE_INSERT =
+        "merge into reminder_deliveries d using (values (cast(? as date), cast(? as bigint))) s(date, habit_id) " +
+        "on d.date = s.date and d.habit_id = s.habit_id " +
+        "when not matched then insert (date, habit_id) values (s.date, s.habit_id)";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    public ReminderClaimRepositoryImpl(JdbcTemplate jdbcTemplate){
+        this.jdbcTemplate = jdbcTemplate;
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        this.insertSql = "PostgreSQL".equals(product) ? POSTGRES_INSERT : MERGE_INSERT;
+    }
+
+    @Override
+    public int claimReminder(Long habitId, LocalDate date){
+        return retryOnDuplicateKey(() -> jdbcTemplate.update(insertSql, Date.valueOf(date), habitId));
+    }
+
+    private <T> T retryOnDuplicateKey(Supplier<T> statement){
+        for(int attempt = 1; ; attempt++){
+            try {
+                return statement.get();
+            } catch (DuplicateKeyException ex) {
+                if(attempt == MAX_ATTEMPTS) throw ex;
+            }
+        }
+    }
+}
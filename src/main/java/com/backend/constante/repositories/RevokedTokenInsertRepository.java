@@ -0,0 +1,19 @@
+package com.backend.constante.repositories;
+
+import java.time.Instant;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Revokes a token id at most once, so two requests revoking the same token can tell which one did it.
+ */
+public interface RevokedTokenInsertRepository {
+    /**
+     * Inserts the token id unless it is already there, even if inserted by a concurrent transaction,
+     * which is waited for.
+     *
+     * @return 1 if this call revoked the token, 0 if it was already revoked.
+     */
+    @Transactional
+    int insertIfAbsent(String jti, Instant expiresAt);
+}
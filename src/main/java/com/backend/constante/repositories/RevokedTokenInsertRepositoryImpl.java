@@ -0,0 +1,53 @@
+package com.backend.constante.repositories;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Insert-if-absent on the primary key of {@code revoked_tokens}, following {@link RecordUpsertRepositoryImpl}:
+ * {@code ON CONFLICT DO NOTHING} on PostgreSQL, a standard {@code MERGE} without an update branch elsewhere.
+ * When two transactions merge the same id at once, the loser hits the primary key, runs the statement again
+ * and finds the row.
+ */
+public class RevokedTokenInsertRepositoryImpl implements RevokedTokenInsertRepository {
+    private static final String POSTGRES_INSERT =
+        "insert into revoked_tokens (jti, expires_at) values (?, ?) on conflict do nothing";
+
+    private static final String MERGE_INSERT =
+        "merge into revoked_tokens t using (values (cast(? as varchar(36)), cast(? as timestamp(6) with time zone))) " +
+        "s(jti, expires_at) on t.jti = s.jti " +
+        "when not matched then insert (jti, expires_at) values (s.jti, s.expires_at)";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    public RevokedTokenInsertRepositoryImpl(JdbcTemplate jdbcTemplate){
+        this.jdbcTemplate = jdbcTemplate;
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        this.insertSql = "PostgreSQL".equals(product) ? POSTGRES_INSERT : MERGE_INSERT;
+    }
+
+    @Override
+    public int insertIfAbsent(String jti, Instant expiresAt){
+        return retryOnDuplicateKey(() -> jdbcTemplate.update(insertSql, jti, expiresAt.atOffset(ZoneOffset.UTC)));
+    }
+
+    private <T> T retryOnDuplicateKey(Supplier<T> statement){
+        for(int attempt = 1; ; attempt++){
+            try {
+                return statement.get();
+            } catch (DuplicateKeyException ex) {
+                if(attempt == MAX_ATTEMPTS) throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.backend.constante.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.constante.model.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String>, RevokedTokenInsertRepository {
+    //Keyset page over the primary key, so the revocation filter is rebuilt without holding every id at once.
+    @Query("select t.jti from RevokedToken t where t.jti > :afterJti and t.expiresAt > :now order by t.jti")
+    List<String> findActiveJtisAfter(@Param("afterJti") String afterJti, @Param("now") Instant now, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
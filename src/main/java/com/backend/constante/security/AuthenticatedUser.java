@@ -0,0 +1,22 @@
+package com.backend.constante.security;
+
+import java.time.Instant;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal built straight from the signed token claims, without loading the user from the database.
+ * {@link #getName()} returns the email, so {@code Authentication.getName()} keeps working in the controllers.
+ *
+ * @param id id of the authenticated user.
+ * @param email email of the authenticated user.
+ * @param tokenId id (jti) of the access token the request was made with.
+ * @param tokenExpiresAt expiration of that token.
+ */
+public record AuthenticatedUser(Long id, String email, String tokenId, Instant tokenExpiresAt) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,68 @@
+package com.backend.constante.security;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size Bloom filter of strings: no false negatives, and false positives at about the rate it was sized for.
+ * Immutable once built and shared, so lookups need no locking.
+ */
+final class BloomFilter {
+    private static final BloomFilter EMPTY = new BloomFilter(64, 1);
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashes;
+
+    private BloomFilter(int bitCount, int hashes){
+        this.bits = new long[(bitCount + 63) / 64];
+        this.bitCount = bits.length * 64;
+        this.hashes = hashes;
+    }
+
+    static BloomFilter empty(){
+        return EMPTY;
+    }
+
+    /**
+     * @param expectedEntries number of entries that will be added.
+     * @param falsePositiveRate probability that an absent entry is reported as present.
+     */
+    static BloomFilter sizedFor(long expectedEntries, double falsePositiveRate){
+        long entries = Math.max(1, expectedEntries);
+        double ln2 = Math.log(2);
+        long bitCount = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int hashes = (int) Math.max(1, Math.round((double) bitCount / entries * ln2));
+
+        return new BloomFilter((int) Math.min(bitCount, Integer.MAX_VALUE - 63), hashes);
+    }
+
+    void add(String value){
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for(int i = 0; i < hashes; i++){
+            int bit = (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String value){
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for(int i = 0; i < hashes; i++){
+            int bit = (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+            if((bits[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    //Seeded FNV-1a over the UTF-8 bytes, finished with the splitmix64 mixer.
+    private static long hash(String value, long seed){
+        long hash = 0xCBF29CE484222325L ^ seed;
+        for(byte b : value.getBytes(StandardCharsets.UTF_8)){
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -1,32 +1,41 @@
 package com.backend.constante.security;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.backend.constante.config.JwtUtil;
-import com.backend.constante.services.UserService;
-
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 
 @Component
-@RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
-
-    @Autowired
-    private JwtUtil jwtUtil;
-
-    private final UserService userService;
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final JwtVerificationCache verificationCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationList revocationList;
+    private final boolean checkTokenVersion;
+
+    public JwtRequestFilter(JwtVerificationCache verificationCache,
+                            TokenVersionRegistry tokenVersionRegistry,
+                            TokenRevocationList revocationList,
+                            @Value("${security.jwt.check-token-version:true}") boolean checkTokenVersion){
+        this.verificationCache = verificationCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.revocationList = revocationList;
+        this.checkTokenVersion = checkTokenVersion;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -34,21 +43,24 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         String authorizationHeader = request.getHeader("Authorization");
 
-        String email = null;
-        String jwtToken = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwtToken = authorizationHeader.substring(7); 
-            email = jwtUtil.getEmailFromToken(jwtToken); 
-        }
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwtToken = authorizationHeader.substring(7); 
+            //Signature and expiration are checked once here; an invalid token simply leaves the request anonymous.
+            //Refresh tokens never authenticate a request, and revocation is checked in memory.
+            Optional<VerifiedToken> verifiedToken = verificationCache.verify(jwtToken)
+                .filter(token -> token.type() == TokenType.access)
+                .filter(token -> !revocationList.isRevoked(token.id()))
+                .filter(token -> !checkTokenVersion || tokenVersionRegistry.isCurrent(token));
 
-            UserDetails userDetails = userService.loadUserByUsername(email);
+            if (verifiedToken.isPresent()) {
+                //The principal comes from the signed claims, so no user row is loaded per request.
+                VerifiedToken token = verifiedToken.get();
+                AuthenticatedUser principal = new AuthenticatedUser(token.userId(), token.email(), token.id(), token.expiresAt());
 
-            if (jwtUtil.isTokenValid(jwtToken, userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(principal, null, AUTHORITIES);
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -57,4 +69,4 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.backend.constante.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.config.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Remembers tokens that already passed signature verification.
+ * Entries are keyed by the SHA-256 digest of the token, so raw bearer tokens are never kept in memory,
+ * and each entry expires exactly when its token does.
+ */
+@Component
+public class JwtVerificationCache {
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtVerificationCache(JwtUtil jwtUtil,
+                                @Value("${security.jwt.cache.max-size:10000}") long maxSize){
+        this.jwtUtil = jwtUtil;
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                    return remainingNanos(token);
+                }
+
+                @Override
+                public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                    return remainingNanos(token);
+                }
+
+                @Override
+                public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Verifies a bearer token, parsing it at most once while it stays cached.
+     *
+     * @param token compact JWT taken from the Authorization header.
+     * @return the verified claims, or empty if the token is invalid or expired.
+     */
+    public Optional<VerifiedToken> verify(String token){
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+
+        if(cached != null && !cached.isExpired(Instant.now())){
+            return Optional.of(cached);
+        }
+
+        try {
+            VerifiedToken verified = jwtUtil.verifyToken(token);
+            verifiedTokens.put(digest, verified);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static long remainingNanos(VerifiedToken token){
+        return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+    }
+
+    private static String digest(String token){
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            //Every JVM is required to ship SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+}
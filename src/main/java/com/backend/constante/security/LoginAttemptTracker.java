@@ -0,0 +1,56 @@
+package com.backend.constante.security;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Counts failed logins per account in memory and locks the account out once it reaches the limit,
+ * so a brute-force attack is rejected before the database lookup and the password hash.
+ * Each failure restarts the lockout window; a successful login clears the counter.
+ * Counters live in a bounded Caffeine cache, whose map is striped, so concurrent logins of
+ * different accounts never contend on a shared lock.
+ */
+@Component
+public class LoginAttemptTracker {
+    private final Cache<String, Integer> failures;
+    private final int maxFailures;
+
+    public LoginAttemptTracker(@Value("${security.login.max-failures:5}") int maxFailures,
+                            @Value("${security.login.lockout:15m}") Duration lockout,
+                            @Value("${security.login.max-accounts:100000}") long maxAccounts){
+        this.maxFailures = maxFailures;
+        this.failures = Caffeine.newBuilder()
+            .maximumSize(maxAccounts)
+            .expireAfterWrite(lockout)
+            .build();
+    }
+
+    /**
+     * @throws TooManyRequestsException if the account reached the failed attempt limit.
+     */
+    public void checkAllowed(String email){
+        Integer count = failures.getIfPresent(key(email));
+        if(count != null && count >= maxFailures){
+            throw new TooManyRequestsException("Too many failed login attempts, try again later.");
+        }
+    }
+
+    public void recordFailure(String email){
+        failures.asMap().merge(key(email), 1, Integer::sum);
+    }
+
+    public void reset(String email){
+        failures.invalidate(key(email));
+    }
+
+    private static String key(String email){
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
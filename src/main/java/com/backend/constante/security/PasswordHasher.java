@@ -0,0 +1,99 @@
+package com.backend.constante.security;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.exception.ServiceUnavailableException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs password hashing on its own small pool of platform threads, so a burst of logins can only
+ * use those threads instead of every request thread. When the queue is full, or a hash waits longer
+ * than the timeout, the login fails fast with a {@link ServiceUnavailableException}.
+ */
+@Component
+public class PasswordHasher {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    //Checked against when the email is unknown, so response times don't reveal which accounts exist.
+    private final String unknownUserHash;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                        @Value("${security.password.hashing.threads:0}") int threads,
+                        @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+                        @Value("${security.password.hashing.timeout:5s}") Duration timeout){
+        //Hashing is CPU bound: one thread per core unless configured.
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        this.unknownUserHash = passwordEncoder.encode("unknown-user");
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hasher");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean matches(String rawPassword, String hash){
+        return run(() -> passwordEncoder.matches(rawPassword, hash));
+    }
+
+    //Spends the same time as a failed match for an account that doesn't exist.
+    public boolean matchesUnknownUser(String rawPassword){
+        run(() -> passwordEncoder.matches(rawPassword, unknownUserHash));
+        return false;
+    }
+
+    public String encode(String rawPassword){
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    //True when the hash was made with a lower cost than the configured one.
+    public boolean needsRehash(String hash){
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    private <T> T run(Callable<T> task){
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceUnavailableException("Too many logins in progress, try again later.");
+        }
+
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            result.cancel(true);
+            throw new ServiceUnavailableException("Too many logins in progress, try again later.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new ServiceUnavailableException("The login was interrupted.");
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.backend.constante.security;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.constante.repositories.RevokedTokenRepository;
+
+/**
+ * Answers whether a token id has been revoked without any I/O, for {@link JwtRequestFilter}.
+ * Revocations are stored in revoked_tokens and held in memory as a Bloom filter of every unexpired one,
+ * rebuilt periodically (which also picks up the revocations made by other instances), plus an exact set
+ * of the ones committed here that the filter may not hold yet.
+ * A Bloom false positive (at the configured rate) only makes the client refresh its access token;
+ * refresh tokens are revoked with {@link #revokeOnce(String, Instant)}, which checks the table itself.
+ */
+@Component
+public class TokenRevocationList {
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Clock clock;
+    private final double falsePositiveRate;
+    private final int pageSize;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Set<String> recent = ConcurrentHashMap.newKeySet();
+
+    private volatile BloomFilter filter = BloomFilter.empty();
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                                Clock clock,
+                                @Value("${security.jwt.revocation.false-positive-rate:0.000001}") double falsePositiveRate,
+                                @Value("${security.jwt.revocation.page-size:10000}") int pageSize){
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.clock = clock;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pageSize = pageSize;
+    }
+
+    public boolean isRevoked(String jti){
+        if(jti == null) return false;
+        return recent.contains(jti) || filter.mightContain(jti);
+    }
+
+    /**
+     * Revokes a token until it expires. Revoking it again is a no-op.
+     */
+    public void revoke(String jti, Instant expiresAt){
+        revokeOnce(jti, expiresAt);
+    }
+
+    /**
+     * Revokes a token until it expires, if no transaction has revoked it yet: the insert on the primary key
+     * is the check, so two concurrent calls with the same id can't both succeed.
+     *
+     * @return false if the token was already revoked or has expired.
+     */
+    public boolean revokeOnce(String jti, Instant expiresAt){
+        if(jti == null || !expiresAt.isAfter(Instant.now(clock))) return false;
+
+        if(revokedTokenRepository.insertIfAbsent(jti, expiresAt) == 0) return false;
+        //Added once the row is visible, so a rebuild that started earlier never drops it from the exact set.
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            recent.add(jti);
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                recent.add(jti);
+            }
+        });
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString="${security.jwt.revocation.rebuild-interval:1m}",
+                initialDelayString="${security.jwt.revocation.rebuild-interval:1m}")
+    public void rebuild(){
+        if(!rebuildLock.tryLock()) return;
+        try {
+            //Committed before the reads below, so the new filter holds them; the ones added meanwhile stay.
+            Set<String> loaded = Set.copyOf(recent);
+
+            Instant now = Instant.now(clock);
+            revokedTokenRepository.deleteExpired(now);
+
+            List<String> jtis = new ArrayList<>();
+            List<String> page;
+            String afterJti = "";
+            do {
+                page = revokedTokenRepository.findActiveJtisAfter(afterJti, now, Limit.of(pageSize));
+                jtis.addAll(page);
+                if(!page.isEmpty()) afterJti = page.get(page.size() - 1);
+            } while(page.size() == pageSize);
+
+            //Headroom for the revocations that will land in the exact set until the next rebuild.
+            BloomFilter rebuilt = BloomFilter.sizedFor(jtis.size() * 2L + 1024, falsePositiveRate);
+            jtis.forEach(rebuilt::add);
+
+            filter = rebuilt;
+            recent.removeAll(loaded);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
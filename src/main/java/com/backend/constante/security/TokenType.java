@@ -0,0 +1,8 @@
+package com.backend.constante.security;
+
+/**
+ * Access tokens authenticate requests; refresh tokens are only accepted by {@code /auth/refresh}.
+ */
+public enum TokenType {
+    access, refresh
+}
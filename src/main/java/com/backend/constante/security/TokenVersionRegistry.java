@@ -0,0 +1,45 @@
+package com.backend.constante.security;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Checks that a token was issued for the current token version of its user.
+ * Versions are read with a scalar query, never the whole entity, and cached briefly per user id,
+ * so bumping a user's version revokes every token issued before it within one cache TTL.
+ */
+@Component
+public class TokenVersionRegistry {
+    private static final int UNKNOWN_USER = -1;
+
+    private final AsyncLoadingCache<Long, Integer> versions;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${security.jwt.version-cache.max-size:10000}") long maxSize,
+                                @Value("${security.jwt.version-cache.ttl:60s}") Duration ttl,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads){
+        Executor loader = CacheLoads.executor(virtualThreads, "token-version-load-");
+        this.versions = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .buildAsync((userId, executor) -> CompletableFuture.supplyAsync(
+                () -> userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER), loader));
+    }
+
+    public boolean isCurrent(VerifiedToken token){
+        return CacheLoads.join(versions.get(token.userId())) == token.tokenVersion();
+    }
+
+    public void evict(Long userId){
+        versions.synchronous().invalidate(userId);
+    }
+}
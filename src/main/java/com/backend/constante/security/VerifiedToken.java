@@ -0,0 +1,20 @@
+package com.backend.constante.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiration have already been checked.
+ *
+ * @param userId id of the user the token was issued to.
+ * @param email subject of the token.
+ * @param tokenVersion version of the user's tokens at the time it was issued.
+ * @param expiresAt instant after which the token must no longer be accepted.
+ * @param id unique id of the token (jti), used to revoke it.
+ * @param type whether it is an access or a refresh token.
+ */
+public record VerifiedToken(Long userId, String email, int tokenVersion, Instant expiresAt, String id, TokenType type) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
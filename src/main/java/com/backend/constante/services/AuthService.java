@@ -1,16 +1,32 @@
 package com.backend.constante.services;
 
-import org.modelmapper.ModelMapper;
-import org.springframework.security.authentication.AuthenticationManager;
+import java.util.Optional;
+
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.backend.constante.config.JwtUtil;
 import com.backend.constante.dto.LoginRequest;
+import com.backend.constante.dto.TokenDTO;
 import com.backend.constante.dto.UserDTO;
+import com.backend.constante.exception.ServiceUnavailableException;
+import com.backend.constante.exception.TooManyRequestsException;
+import com.backend.constante.mappers.UserMapper;
 import com.backend.constante.model.User;
 import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.security.AuthenticatedUser;
+import com.backend.constante.security.LoginAttemptTracker;
+import com.backend.constante.security.PasswordHasher;
+import com.backend.constante.security.TokenRevocationList;
+import com.backend.constante.security.TokenType;
+import com.backend.constante.security.TokenVersionRegistry;
+import com.backend.constante.security.VerifiedToken;
+
+import io.jsonwebtoken.JwtException;
 
 import lombok.RequiredArgsConstructor;
 
@@ -18,32 +34,126 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AuthService {
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
-    private final AuthenticationManager authenticationManager;
+    private final UserMapper userMapper;
     private final JwtUtil jwtUtil;
+    private final PasswordHasher passwordHasher;
+    private final LoginAttemptTracker loginAttempts;
+    private final TokenRevocationList revocationList;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     /**
-    * Logs a user in by authenticating credentials and generating a JWT token.
-    * This method delegates authentication to Spring Security via {@link AuthenticationManager}.
-    * If the credentials are invalid, it throws an exception (e.g., {@link BadCredentialsException})
-    * which is handled globally by a {@link GlobalExceptionHandler}.
+    * Logs a user in by checking its credentials and generating a JWT token.
+    * The user is loaded once and its password is checked on the {@link PasswordHasher} pool, never on the request thread.
+    * Accounts with too many failed attempts are rejected before the lookup, and a password hashed with
+    * a lower cost than the configured one is rehashed.
+    * Invalid credentials throw a {@link BadCredentialsException}, handled globally.
     *
     * @param request with email and password.
-    * @return UserDTO with user data and the JWT token.
+    * @return UserDTO with user data, the access token and the refresh token.
+    * @throws TooManyRequestsException if the account is locked out after too many failed attempts.
+    * @throws ServiceUnavailableException if too many logins are already waiting to be checked.
     */
+    //Like registration, the password check holds no connection: the lookup and the rehash commit on their own.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO loginUser(LoginRequest request){
-        authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        String email = request.getEmail();
+        loginAttempts.checkAllowed(email);
+
+        Optional<User> found = userRepository.findByEmail(email);
+        boolean valid = found.isPresent()
+            ? passwordHasher.matches(request.getPassword(), found.get().getPassword())
+            : passwordHasher.matchesUnknownUser(request.getPassword());
 
-        User user = userRepository.findByEmail(request.getEmail())
-            .orElseThrow();
+        if(!valid){
+            loginAttempts.recordFailure(email);
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        loginAttempts.reset(email);
 
-        String token = jwtUtil.generateToken(user.getEmail());
+        User user = found.get();
+        if(passwordHasher.needsRehash(user.getPassword())){
+            userRepository.updatePassword(user.getId(), passwordHasher.encode(request.getPassword()));
+        }
 
-        UserDTO userMapped = modelMapper.map(user, UserDTO.class);
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getTokenVersion());
+
+        UserDTO userMapped = userMapper.toDTO(user);
         userMapped.setToken(token);
+        userMapped.setRefreshToken(jwtUtil.generateRefreshToken(user.getId(), user.getEmail(), user.getTokenVersion()));
 
         return userMapped;
     }
+
+    /**
+    * Exchanges a refresh token for a new access token and a new refresh token.
+    * Refreshing is rare, so the refresh token is checked exactly against the database: issued for the current
+    * token version of its user, and revoked by this call, which fails if another one already did, so each is used once.
+    *
+    * @param refreshToken refresh token returned by the login or a previous refresh.
+    * @return the new pair of tokens.
+    * @throws BadCredentialsException if the token is invalid, expired, revoked or not a refresh token.
+    */
+    @Transactional
+    public TokenDTO refresh(String refreshToken){
+        VerifiedToken token = verifyRefreshToken(refreshToken)
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        boolean current = userRepository.findTokenVersionById(token.userId())
+            .map(version -> version == token.tokenVersion())
+            .orElse(false);
+        if(!current || !revocationList.revokeOnce(token.id(), token.expiresAt())){
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+
+        return new TokenDTO(
+            jwtUtil.generateToken(token.userId(), token.email(), token.tokenVersion()),
+            jwtUtil.generateRefreshToken(token.userId(), token.email(), token.tokenVersion()));
+    }
+
+    /**
+    * Signs the current device out: revokes the access token of the request and, if given, its refresh token.
+    *
+    * @param user principal of the request, with the id of its access token.
+    * @param refreshToken refresh token of the same session; ignored if null or not the user's.
+    */
+    @Transactional
+    public void logout(AuthenticatedUser user, String refreshToken){
+        revocationList.revoke(user.tokenId(), user.tokenExpiresAt());
+
+        verifyRefreshToken(refreshToken)
+            .filter(token -> token.userId().equals(user.id()))
+            .ifPresent(token -> revocationList.revoke(token.id(), token.expiresAt()));
+    }
+
+    /**
+    * Signs every device out by bumping the user's token version, which invalidates every access and
+    * refresh token issued before it.
+    *
+    * @param userId id of the authenticated user.
+    */
+    @Transactional
+    public void logoutAll(Long userId){
+        userRepository.incrementTokenVersion(userId);
+        //Evicting before the commit would let a concurrent request cache the old version again.
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            tokenVersionRegistry.evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                tokenVersionRegistry.evict(userId);
+            }
+        });
+    }
+
+    private Optional<VerifiedToken> verifyRefreshToken(String refreshToken){
+        if(refreshToken == null || refreshToken.isBlank()) return Optional.empty();
+        try {
+            return Optional.of(jwtUtil.verifyToken(refreshToken))
+                .filter(token -> token.type() == TokenType.refresh);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
 }
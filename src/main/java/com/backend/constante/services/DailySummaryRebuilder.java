@@ -0,0 +1,94 @@
+package com.backend.constante.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.CacheLoads;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rebuilds {@code daily_summaries} from the records, for backfills and repairs.
+ * Users are split in ranges of consecutive ids read by keyset and at most {@code threads} ranges run at once,
+ * on virtual threads when {@code spring.threads.virtual.enabled} is set. Each user
+ * is rebuilt in its own short transaction through {@link DailySummaryService#rebuild(Long)}, holding the locks
+ * the live updates take, so it can run while the application serves requests and a failed one can simply be run again.
+ */
+@Slf4j
+@Component
+public class DailySummaryRebuilder {
+    private final DailySummaryService dailySummaryService;
+    private final UserRepository userRepository;
+    private final int threads;
+    private final int usersPerChunk;
+    private final boolean onStartup;
+    private final boolean virtualThreads;
+
+    public DailySummaryRebuilder(DailySummaryService dailySummaryService,
+                                UserRepository userRepository,
+                                @Value("${daily-summary.rebuild.threads:2}") int threads,
+                                @Value("${daily-summary.rebuild.users-per-chunk:500}") int usersPerChunk,
+                                @Value("${daily-summary.rebuild.on-startup:false}") boolean onStartup,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads){
+        this.dailySummaryService = dailySummaryService;
+        this.userRepository = userRepository;
+        this.threads = threads;
+        this.usersPerChunk = usersPerChunk;
+        this.onStartup = onStartup;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup(){
+        if(onStartup) rebuild();
+    }
+
+    /**
+     * Rebuilds the rollups of every user.
+     *
+     * @return number of rows written.
+     */
+    public int rebuild(){
+        SimpleAsyncTaskExecutor executor = CacheLoads.taskExecutor(virtualThreads, "daily-summary-rebuild-");
+        //Submitting waits for a free slot; closing interrupts the ranges still running after a failure.
+        executor.setConcurrencyLimit(threads);
+        executor.setTaskTerminationTimeout(1000);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            Long afterId = 0L;
+            List<Long> ids;
+            do {
+                ids = userRepository.findIdsAfter(afterId, Limit.of(usersPerChunk));
+                if(ids.isEmpty()) break;
+
+                List<Long> chunk = ids;
+                chunks.add(executor.submit(() -> chunk.stream().mapToInt(dailySummaryService::rebuild).sum()));
+                afterId = ids.get(ids.size() - 1);
+            } while(ids.size() == usersPerChunk);
+
+            int rows = 0;
+            for(Future<Integer> chunk : chunks){
+                rows += chunk.get();
+            }
+            log.info("Rebuilt {} daily summaries in {} chunks", rows, chunks.size());
+            return rows;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Daily summary rebuild was interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Daily summary rebuild failed", ex.getCause());
+        } finally {
+            executor.close();
+        }
+    }
+}
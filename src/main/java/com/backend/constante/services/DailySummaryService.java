@@ -0,0 +1,168 @@
+package com.backend.constante.services;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.constante.dto.DailySummaryDTO;
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.exception.BusinessRuleException;
+import com.backend.constante.model.DailySummary;
+import com.backend.constante.repositories.DailySummaryRepository;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.RecordRepository;
+import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.Frequency;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class DailySummaryService {
+    private final DailySummaryRepository dailySummaryRepository;
+    private final HabitRepository habitRepository;
+    private final RecordRepository recordRepository;
+    private final UserRepository userRepository;
+    private final UserIdResolver userIdResolver;
+
+    //Upper bound for a single range, about a year of days.
+    private static final int MAX_DAYS = 366;
+
+    /**
+     * Adds completions (or removes them, with negative counts) to the rollups of a user.
+     * Callers pass only the changes in state, so saving an already completed habit again changes nothing.
+     *
+     * @param userId owner of the records.
+     * @param completionsByDate change in completed habits of each day.
+     */
+    @Transactional
+    public void registerCompletions(Long userId, Map<LocalDate, Integer> completionsByDate){
+        Map<LocalDate, Integer> changes = completionsByDate.entrySet().stream()
+            .filter(entry -> entry.getValue() != 0)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if(changes.isEmpty()) return;
+
+        dailySummaryRepository.addCompletions(userId, changes);
+    }
+
+    /**
+     * Counts a new habit as due on every stored day since it started. It has no completions yet,
+     * so even a weekly one is due on all of them.
+     *
+     * @param userId owner of the habit.
+     * @param madeSince start date of the habit; null if it counts on every day.
+     */
+    @Transactional
+    public void registerHabitCreated(Long userId, LocalDate madeSince){
+        dailySummaryRepository.addDue(userId, madeSince, 1);
+    }
+
+    /**
+     * Recounts the due habits after the start date or the frequency of a habit changed.
+     * The change must already be flushed, since the count is read from {@code habits}.
+     *
+     * @param userId owner of the habit.
+     * @param from first day whose count can change; null for every day.
+     */
+    @Transactional
+    public void registerScheduleChanged(Long userId, LocalDate from){
+        dailySummaryRepository.refreshDue(userId, from);
+    }
+
+    /**
+     * Removes a habit and its completions from the rollups. Has to run while its records still exist.
+     *
+     * @param userId owner of the habit.
+     * @param habitId the habit being deleted.
+     */
+    @Transactional
+    public void registerHabitDeleted(Long userId, Long habitId){
+        dailySummaryRepository.removeDueOfHabit(userId, habitId);
+        dailySummaryRepository.removeCompletionsOfHabit(userId, habitId);
+    }
+
+    /**
+     * Replaces the rollups of a user with the ones computed from its records.
+     * The user and its habits are locked first, in the order the writers take them: habit changes lock the
+     * user before adjusting the rollups, completions lock their habits. None of them is lost between the
+     * delete and the insert.
+     *
+     * @return number of rows written.
+     */
+    @Transactional
+    public int rebuild(Long userId){
+        if(userRepository.findIdWithLockById(userId).isEmpty()) return 0;
+        habitRepository.findIdsWithLockByUserId(userId);
+
+        return dailySummaryRepository.rebuild(userId);
+    }
+
+    /**
+     * Returns one summary per day of the range for the authenticated user, reading one rollup row per day.
+     * Days without records have no row: they are reported with no completions and the habits due then,
+     * that is, the ones started by then, except weekly ones already completed during that week.
+     *
+     * @param email retrieved from the user's token.
+     * @param from first day of the range.
+     * @param to last day of the range.
+     * @return List of DailySummaryDTOs, oldest day first.
+     * @throws BusinessRuleException if the range is reversed or longer than {@value #MAX_DAYS} days.
+     */
+    @Transactional(readOnly = true)
+    public List<DailySummaryDTO> findSummaries(String email, LocalDate from, LocalDate to){
+        if(from.isAfter(to)){
+            throw new BusinessRuleException("The start of the range can't be after its end.");
+        }
+        if(ChronoUnit.DAYS.between(from, to) >= MAX_DAYS){
+            throw new BusinessRuleException("A range can't be longer than " + MAX_DAYS + " days.");
+        }
+        Long userId = userIdResolver.resolve(email);
+
+        Map<LocalDate, DailySummary> stored = dailySummaryRepository.findByUserIdAndDateBetweenOrderByDate(userId, from, to).stream()
+            .collect(Collectors.toMap(DailySummary::getDate, Function.identity()));
+        List<HabitDTO> habits = null;
+        Map<Long, Set<LocalDate>> completedWeeks = null;
+
+        List<DailySummaryDTO> summaries = new ArrayList<>();
+        for(LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)){
+            DailySummary summary = stored.get(day);
+            if(summary != null){
+                summaries.add(new DailySummaryDTO(day, summary.getDue(), summary.getCompleted()));
+                continue;
+            }
+            //The habits are read only if some day of the range has no row.
+            if(habits == null){
+                habits = habitRepository.findDTOsByUserId(userId);
+                LocalDate firstWeek = Frequency.weekly.periodStart(from);
+                completedWeeks = recordRepository.findCompletedDTOsOfWeeklyHabitsByUserIdBetween(userId, firstWeek, Frequency.weekly.periodStart(to).plusDays(6))
+                    .stream()
+                    .collect(Collectors.groupingBy(RecordDTO::getHabitId,
+                        Collectors.mapping(record -> Frequency.weekly.periodStart(record.getDate()), Collectors.toSet())));
+            }
+            summaries.add(new DailySummaryDTO(day, due(habits, completedWeeks, day), 0));
+        }
+        return summaries;
+    }
+
+    //A day without a row has no completions, so a weekly habit is due unless it was completed on another day of the week.
+    private int due(List<HabitDTO> habits, Map<Long, Set<LocalDate>> completedWeeks, LocalDate day){
+        LocalDate week = Frequency.weekly.periodStart(day);
+        int due = 0;
+        for(HabitDTO habit : habits){
+            if(habit.getMadeSince() != null && habit.getMadeSince().isAfter(day)) continue;
+            if(Frequency.orDefault(habit.getFrequency()) == Frequency.weekly
+                && completedWeeks.getOrDefault(habit.getId(), Set.of()).contains(week)) continue;
+            due++;
+        }
+        return due;
+    }
+}
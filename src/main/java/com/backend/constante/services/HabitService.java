@@ -1,17 +1,21 @@
 package com.backend.constante.services;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.TodayHabitDTO;
+import com.backend.constante.exception.PreconditionFailedException;
 import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.mappers.HabitMapper;
 import com.backend.constante.model.Habit;
-import com.backend.constante.model.User;
 import com.backend.constante.repositories.HabitRepository;
 import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.ETags;
+import com.backend.constante.utils.Frequency;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,8 +23,12 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class HabitService {
     private final HabitRepository habitRepository;
-    private final ModelMapper modelMapper;
+    private final HabitMapper habitMapper;
     private final UserRepository userRepository;
+    private final UserIdResolver userIdResolver;
+    private final StreakService streakService;
+    private final HeatmapService heatmapService;
+    private final DailySummaryService dailySummaryService;
 
     /**
      * Creates a new habit associated with the authenticated user.
@@ -33,16 +41,52 @@ public class HabitService {
      * @return saved habit as DTO.
      * @throws ResourceNotFoundException if user or context is invalid
      */
+    @Transactional
     public HabitDTO createHabit(HabitDTO habit, String email){
-        Habit newHabit = modelMapper.map(habit, Habit.class);
+        Habit newHabit = habitMapper.toEntity(habit);
         
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
+        Long userId = userIdResolver.resolve(email);
 
-        newHabit.setUser(user);
+        newHabit.setUser(userRepository.getReferenceById(userId));
         Habit savedHabit = habitRepository.save(newHabit);
+        userRepository.incrementHabitsVersion(userId);
+        dailySummaryService.registerHabitCreated(userId, savedHabit.getMadeSince());
+
+        return habitMapper.toDTO(savedHabit);
+    }
+
+    /**
+    * Returns the ETag of the authenticated user's habit list, built from a single scalar query,
+    * so a poll whose {@code If-None-Match} still matches never loads the habits.
+    * 
+    * @param email retrieved from the user's token.
+    * @return strong ETag of the habit list.
+    * @throws ResourceNotFoundException if user is invalid.
+    */
+    @Transactional(readOnly = true)
+    public String findHabitsETag(String email){
+        Long userId = userIdResolver.resolve(email);
+        Long version = userRepository.findHabitsVersionById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", email));
+
+        return ETags.habits(userId, version);
+    }
+
+    /**
+    * Returns the ETag of a habit from its version column alone.
+    * 
+    * @param idHabit the ID of the habit in question.
+    * @param email retrieved from the user's token.
+    * @return strong ETag of the habit.
+    * @throws ResourceNotFoundException if user or habit is invalid.
+    */
+    @Transactional(readOnly = true)
+    public String findHabitETag(Long idHabit, String email){
+        Long userId = userIdResolver.resolve(email);
+        Long version = habitRepository.findVersionByIdAndUserId(idHabit, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
 
-        return modelMapper.map(savedHabit, HabitDTO.class);
+        return ETags.habit(idHabit, version);
     }
 
     /**
@@ -53,17 +97,32 @@ public class HabitService {
     * @return List of habits as DTOs.
     * @throws ResourceNotFoundException if user is invalid.
     */
+    @Transactional(readOnly = true)
     public List<HabitDTO> findHabitsByUser(String email){
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
-
-        List<Habit> habits = habitRepository.findByUser(user);
+        Long userId = userIdResolver.resolve(email);
 
-        return habits.stream()
-                    .map(habit -> modelMapper.map(habit, HabitDTO.class))
-                    .collect(Collectors.toList());
+        return habitRepository.findDTOsByUserId(userId);
     }
     
+    /**
+    * Returns every habit of the authenticated user with its status on the given day,
+    * so the home screen doesn't need to join habits and records on the client.
+    * Weekly habits count as satisfied by any completion during the week (Monday to Sunday) of that day.
+    * 
+    * @param email retrieved from the user's token.
+    * @param date day to report; today if null.
+    * @return List of habits with their status.
+    * @throws ResourceNotFoundException if user is invalid.
+    */
+    @Transactional(readOnly = true)
+    public List<TodayHabitDTO> findTodayHabits(String email, LocalDate date){
+        Long userId = userIdResolver.resolve(email);
+        LocalDate day = date != null ? date : LocalDate.now();
+        LocalDate weekStart = Frequency.weekly.periodStart(day);
+
+        return habitRepository.findTodayDTOsByUserId(userId, day, weekStart, weekStart.plusDays(6));
+    }
+
     /**
     * Searches for a habit by a specific ID.
     * This method searches for the authenticated user's data.
@@ -75,14 +134,14 @@ public class HabitService {
     * @return HabitDTO with the mapped information.
     * @throws ResourceNotFoundException if user or habit is invalid.
     */
+    @Transactional(readOnly = true)
     public HabitDTO findHabitById(Long idHabit, String email){
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
+        Long userId = userIdResolver.resolve(email);
         
-        Habit habit = habitRepository.findByIdAndUser(idHabit, user)
+        Habit habit = habitRepository.findByIdAndUserId(idHabit, userId)
             .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
         
-        return modelMapper.map(habit, HabitDTO.class);
+        return habitMapper.toDTO(habit);
     }
 
     /**
@@ -90,19 +149,42 @@ public class HabitService {
      *
      * This method does NOT overwrite null values — useful for PATCH-style operations
      * where only specific fields are sent.
+     * If the frequency or the start date changes, the habit's streaks are rebuilt and its due days recounted.
      *
      * @param email of the authenticated user.
      * @param idHabit target habit ID.
      * @param habit contains only the fields to update (others are ignored).
      * @throws ResourceNotFoundException if user or habit is invalid.
     */
+    @Transactional
     public void updateHabit(String email, Long idHabit, HabitDTO habit){
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
+        updateHabit(email, idHabit, habit, null);
+    }
+
+    /**
+     * Same as {@link #updateHabit(String, Long, HabitDTO)}, only if the habit still matches {@code ifMatch}.
+     * A concurrent update committed between the check and this one fails on the habit's version.
+     *
+     * @param ifMatch {@code If-Match} header sent by the client; null to update unconditionally.
+     * @throws PreconditionFailedException if the habit has changed since the client read it.
+     */
+    @Transactional
+    public void updateHabit(String email, Long idHabit, HabitDTO habit, String ifMatch){
+        Long userId = userIdResolver.resolve(email);
         
-        Habit existingHabit = habitRepository.findByIdAndUser(idHabit, user)
+        Habit existingHabit = habitRepository.findByIdAndUserId(idHabit, userId)
             .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
+
+        if(ifMatch != null && !ETags.matches(ifMatch, ETags.habit(idHabit, existingHabit.getVersion()))){
+            throw new PreconditionFailedException("Habit " + idHabit + " has been modified.");
+        }
             
+        LocalDate previousStart = existingHabit.getMadeSince();
+        boolean startChanged = habit.getMadeSince() != null && !habit.getMadeSince().equals(previousStart);
+        //Frequency and start date define the streak periods, so changing either requires a rebuild.
+        boolean scheduleChanged = startChanged
+            || (habit.getFrequency() != null && habit.getFrequency() != existingHabit.getFrequency());
+
         if(habit.getName() != null)existingHabit.setName(habit.getName());
         if(habit.getDescription() != null) existingHabit.setDescription(habit.getDescription());
         if(habit.getMadeSince() != null) existingHabit.setMadeSince(habit.getMadeSince());
@@ -110,6 +192,16 @@ public class HabitService {
         if(habit.getReminderTime() != null) existingHabit.setReminderTime(habit.getReminderTime());
 
         habitRepository.save(existingHabit);
+        userRepository.incrementHabitsVersion(userId);
+
+        if(scheduleChanged){
+            //The rollups recount the due habits from the habits table.
+            habitRepository.flush();
+            LocalDate recountFrom = previousStart;
+            if(startChanged && previousStart != null && habit.getMadeSince().isBefore(previousStart)) recountFrom = habit.getMadeSince();
+            dailySummaryService.registerScheduleChanged(userId, recountFrom);
+            streakService.rebuild(existingHabit);
+        }
     }
 
     /**
@@ -122,15 +214,21 @@ public class HabitService {
      * @param idHabit the ID of the habit to search for.
      * @throws ResourceNotFoundException if user or habit is invalid.
      */
+    @Transactional
     public void deleteHabit(String email, Long idHabit){
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
+        Long userId = userIdResolver.resolve(email);
 
-        Habit habit = habitRepository.findByIdAndUser(idHabit, user)
+        Habit habit = habitRepository.findByIdAndUserId(idHabit, userId)
             .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
+        //Locks the user before the rollups change, like every habit change, so a rebuild can't run in between.
+        userRepository.incrementHabitsVersion(userId);
+        //Reads the records of the habit, so it runs before they are deleted with it.
+        dailySummaryService.registerHabitDeleted(userId, idHabit);
         //Unlink the user before deletion to avoid cascading errors.
         habit.setUser(null);
 
         habitRepository.delete(habit);
+        streakService.deleteStreak(idHabit);
+        heatmapService.deleteHeatmaps(idHabit);
     }
 }
@@ -0,0 +1,164 @@
+package com.backend.constante.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.constante.dto.HeatmapDTO;
+import com.backend.constante.exception.BadRequestException;
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.model.HabitYearBitmap;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.HabitYearBitmapRepository;
+import com.backend.constante.repositories.RecordRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class HeatmapService {
+    private final HabitYearBitmapRepository bitmapRepository;
+    private final RecordRepository recordRepository;
+    private final HabitRepository habitRepository;
+    private final UserIdResolver userIdResolver;
+
+    //Earliest year a heatmap can be asked for; older or future years are rejected before any date is built.
+    static final int MIN_YEAR = 1970;
+
+    /**
+     * Marks a completion in the yearly bitmap of the habit.
+     * The first completion of a habit in a year builds the bitmap from the records of that year,
+     * so habits with history from before the bitmaps existed are backfilled.
+     *
+     * @param habitId the completed habit.
+     * @param userId owner of the habit.
+     * @param date day of the completion.
+     */
+    @Transactional
+    public void registerCompletion(Long habitId, Long userId, LocalDate date){
+        registerCompletions(habitId, userId, List.of(date));
+    }
+
+    /**
+     * Marks several completions of a habit, touching each yearly bitmap once.
+     *
+     * @param habitId the completed habit.
+     * @param userId owner of the habit.
+     * @param dates days of the completions.
+     */
+    @Transactional
+    public void registerCompletions(Long habitId, Long userId, Collection<LocalDate> dates){
+        Map<Integer, List<LocalDate>> byYear = dates.stream()
+            .collect(Collectors.groupingBy(LocalDate::getYear));
+
+        byYear.forEach((year, days) -> {
+            HabitYearBitmap bitmap = bitmapRepository.findWithLockByHabitIdAndYear(habitId, year)
+                .orElseGet(() -> build(habitId, userId, year));
+
+            days.forEach(bitmap::set);
+            bitmapRepository.save(bitmap);
+        });
+    }
+
+    /**
+     * Clears a completion that was undone from the yearly bitmap of the habit.
+     *
+     * @param habitId the habit in question.
+     * @param userId owner of the habit.
+     * @param date day that is no longer completed.
+     */
+    @Transactional
+    public void registerUndo(Long habitId, Long userId, LocalDate date){
+        HabitYearBitmap bitmap = bitmapRepository.findWithLockByHabitIdAndYear(habitId, date.getYear())
+            .orElseGet(() -> build(habitId, userId, date.getYear()));
+
+        bitmap.clear(date);
+        bitmapRepository.save(bitmap);
+    }
+
+    /**
+     * Returns the completions of a habit of the authenticated user during a year.
+     * A year without a stored bitmap is built from the records but not saved: only the write path,
+     * which holds the habit's bitmap lock, inserts bitmaps.
+     *
+     * @param idHabit the ID of the habit in question.
+     * @param email retrieved from the user's token.
+     * @param year calendar year to return.
+     * @return HeatmapDTO with the bit-packed completions of the year.
+     * @throws BadRequestException if the year is before {@value #MIN_YEAR} or in the future.
+     * @throws ResourceNotFoundException if user or habit is invalid.
+     */
+    @Transactional(readOnly = true)
+    public HeatmapDTO findHeatmap(Long idHabit, String email, int year){
+        checkYear(year);
+        Long userId = userIdResolver.resolve(email);
+
+        HabitYearBitmap bitmap = bitmapRepository.findByHabitIdAndYear(idHabit, year)
+            .filter(found -> userId.equals(found.getUserId()))
+            .orElseGet(() -> {
+                if(!habitRepository.existsByIdAndUserId(idHabit, userId)){
+                    throw new ResourceNotFoundException("Habit", idHabit);
+                }
+                return build(idHabit, userId, year);
+            });
+
+        return toDTO(bitmap);
+    }
+
+    /**
+     * Returns the completions of every habit of the authenticated user during a year,
+     * reading one bitmap row per habit. Missing bitmaps are built in memory, as in {@link #findHeatmap}.
+     *
+     * @param email retrieved from the user's token.
+     * @param year calendar year to return.
+     * @return List of HeatmapDTOs, one per habit.
+     * @throws BadRequestException if the year is before {@value #MIN_YEAR} or in the future.
+     */
+    @Transactional(readOnly = true)
+    public List<HeatmapDTO> findHeatmaps(String email, int year){
+        checkYear(year);
+        Long userId = userIdResolver.resolve(email);
+
+        Map<Long, HabitYearBitmap> bitmaps = bitmapRepository.findByUserIdAndYear(userId, year).stream()
+            .collect(Collectors.toMap(HabitYearBitmap::getHabitId, Function.identity()));
+
+        List<HeatmapDTO> heatmaps = new ArrayList<>();
+        for(Long habitId : habitRepository.findIdsByUserId(userId)){
+            HabitYearBitmap bitmap = bitmaps.get(habitId);
+            heatmaps.add(toDTO(bitmap != null ? bitmap : build(habitId, userId, year)));
+        }
+        return heatmaps;
+    }
+
+    @Transactional
+    public void deleteHeatmaps(Long habitId){
+        bitmapRepository.deleteByHabitId(habitId);
+    }
+
+    private void checkYear(int year){
+        if(year < MIN_YEAR || year > LocalDate.now().getYear()){
+            throw new BadRequestException("The year must be between " + MIN_YEAR + " and the current year.");
+        }
+    }
+
+    private HabitYearBitmap build(Long habitId, Long userId, int year){
+        HabitYearBitmap bitmap = new HabitYearBitmap(habitId, year, userId);
+
+        recordRepository.findCompletedDatesByHabitIdBetween(habitId, LocalDate.ofYearDay(year, 1), LocalDate.of(year, 12, 31))
+            .forEach(bitmap::set);
+
+        return bitmap;
+    }
+
+    private HeatmapDTO toDTO(HabitYearBitmap bitmap){
+        return new HeatmapDTO(bitmap.getHabitId(), bitmap.getYear(), Base64.getEncoder().encodeToString(bitmap.getBits()));
+    }
+}
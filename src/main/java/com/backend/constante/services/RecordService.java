@@ -1,23 +1,36 @@
 package com.backend.constante.services;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.backend.constante.dto.CompletionDTO;
+import com.backend.constante.dto.CursorPageDTO;
 import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.exception.BusinessRuleException;
 import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.mappers.RecordMapper;
 import com.backend.constante.model.Habit;
 import com.backend.constante.model.Record;
-import com.backend.constante.model.User;
 import com.backend.constante.repositories.HabitRepository;
 import com.backend.constante.repositories.RecordRepository;
-import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.RecordCursor;
+import com.backend.constante.writebehind.PendingCompletion;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,43 +38,203 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class RecordService {
     private final RecordRepository recordRepository;
-    private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final RecordMapper recordMapper;
     private final HabitRepository habitRepository;
+    private final UserIdResolver userIdResolver;
+    private final StreakService streakService;
+    private final HeatmapService heatmapService;
+    private final DailySummaryService dailySummaryService;
+
+    //Upper bound for a single batch, so one request can't hold the transaction for too long.
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
 
     /**
     * Saves information about the completed habit.
-    * First, it searches for the user and the habit in question.
-    * If it doesn't find either of the searched objects, it returns a {@link ResourceNotFoundException}.
-    * Finally, it maps the user and the habit to the record and saves it.
+    * First, it resolves the user and checks that the habit in question belongs to them.
+    * If it doesn't find either of them, it returns a {@link ResourceNotFoundException}.
+    * Then, it writes the record of the day with a single upsert, so repeated or concurrent calls
+    * for the same habit and day leave exactly one row. Passing {@code completed=false} undoes a completion.
+    * Finally, it updates the habit's streaks, yearly heatmap and the user's daily summary in the same transaction.
     * 
     * @param email retrieved from the token. Used to search for the user's account.
     * @param idHabit used to search for the habit.
+    * @param date day of the completion; today if null.
+    * @param completed whether the habit was completed on that day.
     * @return Record saved and mapped as a DTO.
+    * @throws BusinessRuleException if the date is in the future.
     * @throws ResourceNotFoundException if the user or the habit were not found.
     */
-    public RecordDTO saveRecord(String email, Long idHabit){
-        User user =  userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
+    @Transactional
+    public RecordDTO saveRecord(String email, Long idHabit, LocalDate date, boolean completed){
+        LocalDate today = LocalDate.now();
+        LocalDate day = date != null ? date : today;
+        if(day.isAfter(today)){
+            throw new BusinessRuleException("Completions can't be dated in the future.");
+        }
+
+        Long userId = userIdResolver.resolve(email);
         
-        Habit habit = habitRepository.findById(idHabit)
+        Habit habit = habitRepository.findWithLockByIdAndUserId(idHabit, userId)
             .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
         
-        Record newRecord = new Record();
-        newRecord.setUser(user);
-        newRecord.setHabit(habit);
-        newRecord.setCompleted(true);
+        //The upsert reports whether it changed the state, so the summaries count each completion once.
+        if(recordRepository.upsert(userId, idHabit, day, completed)){
+            dailySummaryService.registerCompletions(userId, Map.of(day, completed ? 1 : -1));
+        }
+
+        if(completed){
+            streakService.registerCompletion(habit, day);
+            heatmapService.registerCompletion(idHabit, userId, day);
+        } else {
+            streakService.rebuild(habit);
+            heatmapService.registerUndo(idHabit, userId, day);
+        }
+
+        return new RecordDTO(idHabit, day, completed);
+    }
+
+    @Transactional
+    public RecordDTO saveRecord(String email, Long idHabit){
+        return saveRecord(email, idHabit, null, true);
+    }
+
+    /**
+    * Saves several completions of the authenticated user at once, e.g. the queue of an offline client.
+    * The ownership of every habit is checked with a single query, and the records are upserted
+    * in one JDBC batch, so a retried batch doesn't duplicate rows. Streaks and heatmaps are then updated once per habit,
+    * and the daily summaries once per day, counting only the completions that weren't already recorded.
+    *
+    * @param email retrieved from the token. Used to search for the user's account.
+    * @param completions habits completed and, optionally, the day of each completion.
+    * @return Records saved as DTOs, in the order they were sent.
+    * @throws BusinessRuleException if the batch is empty, too large or has a completion in the future.
+    * @throws ResourceNotFoundException if the user or any of the habits were not found.
+    */
+    @Transactional
+    public List<RecordDTO> saveRecords(String email, List<CompletionDTO> completions){
+        if(completions == null || completions.isEmpty()){
+            throw new BusinessRuleException("At least one completion is required.");
+        }
+        if(completions.size() > MAX_BATCH_SIZE){
+            throw new BusinessRuleException("A batch can't have more than " + MAX_BATCH_SIZE + " completions.");
+        }
+
+        Long userId = userIdResolver.resolve(email);
+        LocalDate today = LocalDate.now();
+
+        Set<Long> habitIds = new HashSet<>();
+        for(CompletionDTO completion : completions){
+            if(completion.getHabitId() == null){
+                throw new BusinessRuleException("Every completion needs a habit id.");
+            }
+            if(completion.getDate() != null && completion.getDate().isAfter(today)){
+                throw new BusinessRuleException("Completions can't be dated in the future.");
+            }
+            habitIds.add(completion.getHabitId());
+        }
+
+        Map<Long, Habit> habits = habitRepository.findWithLockByIdInAndUserId(habitIds, userId).stream()
+            .collect(Collectors.toMap(Habit::getId, Function.identity()));
+        for(Long habitId : habitIds){
+            if(!habits.containsKey(habitId)){
+                throw new ResourceNotFoundException("Habit", habitId);
+            }
+        }
+
+        List<RecordDTO> savedRecords = new ArrayList<>(completions.size());
+        Map<Long, Set<LocalDate>> datesByHabit = new HashMap<>();
+        for(CompletionDTO completion : completions){
+            LocalDate date = completion.getDate() != null ? completion.getDate() : today;
+
+            savedRecords.add(new RecordDTO(completion.getHabitId(), date, true));
+            datesByHabit.computeIfAbsent(completion.getHabitId(), id -> new HashSet<>()).add(date);
+        }
+
+        complete(userId, habits, datesByHabit);
+
+        return savedRecords;
+    }
+
+    /**
+    * Writes completions accepted by the write-behind queue, in one transaction.
+    * The entries were validated when accepted; those of habits deleted since then are skipped.
+    * For the same habit and day the last entry wins, as if the requests had been served one by one.
+    *
+    * @param entries completions in the order they were accepted, possibly of several users.
+    */
+    @Transactional
+    public void applyPending(List<PendingCompletion> entries){
+        Map<Long, Map<Long, Map<LocalDate, Boolean>>> byUser = new LinkedHashMap<>();
+        for(PendingCompletion entry : entries){
+            byUser.computeIfAbsent(entry.userId(), id -> new LinkedHashMap<>())
+                .computeIfAbsent(entry.habitId(), id -> new LinkedHashMap<>())
+                .put(entry.date(), entry.completed());
+        }
+
+        byUser.forEach((userId, byHabit) -> {
+            Map<Long, Habit> habits = habitRepository.findWithLockByIdInAndUserId(byHabit.keySet(), userId).stream()
+                .collect(Collectors.toMap(Habit::getId, Function.identity()));
 
-        Record savedRecord = recordRepository.save(newRecord);
+            Map<Long, Set<LocalDate>> completed = new HashMap<>();
+            Map<Long, Set<LocalDate>> undone = new HashMap<>();
+            byHabit.forEach((habitId, days) -> {
+                if(!habits.containsKey(habitId)) return;
+                days.forEach((day, done) ->
+                    (done ? completed : undone).computeIfAbsent(habitId, id -> new HashSet<>()).add(day));
+            });
 
-        return modelMapper.map(savedRecord, RecordDTO.class);
+            if(!completed.isEmpty()) complete(userId, habits, completed);
+            if(!undone.isEmpty()) undo(userId, habits, undone);
+        });
+    }
+
+    //Upserts the completions, then updates the daily summaries with the ones that weren't recorded yet, and streaks and heatmaps per habit.
+    private void complete(Long userId, Map<Long, Habit> habits, Map<Long, Set<LocalDate>> datesByHabit){
+        Map<LocalDate, Integer> newCompletions = new HashMap<>();
+        Set<RecordDTO> alreadyCompleted = findCompleted(userId, datesByHabit);
+        datesByHabit.forEach((habitId, days) -> days.forEach(day -> {
+            if(!alreadyCompleted.contains(new RecordDTO(habitId, day, true))) newCompletions.merge(day, 1, Integer::sum);
+        }));
+
+        recordRepository.upsertAll(userId, datesByHabit, true);
+        dailySummaryService.registerCompletions(userId, newCompletions);
+        datesByHabit.forEach((habitId, dates) -> {
+            streakService.registerCompletions(habits.get(habitId), dates);
+            heatmapService.registerCompletions(habitId, userId, dates);
+        });
+    }
+
+    private void undo(Long userId, Map<Long, Habit> habits, Map<Long, Set<LocalDate>> datesByHabit){
+        Map<LocalDate, Integer> undoneCompletions = new HashMap<>();
+        findCompleted(userId, datesByHabit).forEach(record -> undoneCompletions.merge(record.getDate(), -1, Integer::sum));
+
+        recordRepository.upsertAll(userId, datesByHabit, false);
+        dailySummaryService.registerCompletions(userId, undoneCompletions);
+        datesByHabit.forEach((habitId, dates) -> {
+            streakService.rebuild(habits.get(habitId));
+            dates.forEach(date -> heatmapService.registerUndo(habitId, userId, date));
+        });
+    }
+
+    private Set<RecordDTO> findCompleted(Long userId, Map<Long, Set<LocalDate>> datesByHabit){
+        Set<LocalDate> days = new HashSet<>();
+        datesByHabit.values().forEach(days::addAll);
+
+        //The query crosses every habit with every day, so keep only the pairs that were asked for.
+        Set<RecordDTO> completed = new HashSet<>();
+        for(RecordDTO record : recordRepository.findCompletedDTOsByHabitIdInAndUserIdAndDateIn(datesByHabit.keySet(), userId, days)){
+            if(datesByHabit.get(record.getHabitId()).contains(record.getDate())) completed.add(record);
+        }
+        return completed;
     }
 
     /**
      * Returns a paginated list of records for a specific habit.
      * The method first checks that the user exists; if not, throws {@link ResourceNotFoundException}.
-     * Then, it verifies the habit exists.
-     * Finally, it retrieves the records with pagination and maps them to DTOs.
+     * Then, it verifies the habit exists and belongs to the user.
+     * Finally, it retrieves the records with pagination, newest first, projected directly into DTOs.
      *
      * @param idHabit identifier of the habit to search for.
      * @param email retrieved from the authenticated user's token.
@@ -69,39 +242,80 @@ public class RecordService {
      * @param size number of items per page.
      * @return Page of RecordDTOs containing the user's records for the habit.
      */
+    @Transactional(readOnly = true)
     public Page<RecordDTO> findRecordsByHabit(Long idHabit, String email, int page, int size){
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
-        
-        Habit habit = habitRepository.findById(idHabit)
-            .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
+        Long userId = userIdResolver.resolve(email);
         
-        Pageable pageable = PageRequest.of(page, size);
+        if(!habitRepository.existsByIdAndUserId(idHabit, userId)){
+            throw new ResourceNotFoundException("Habit", idHabit);
+        }
         
-        Page<Record> records = recordRepository.findByHabitAndUser(habit, user, pageable);
+        Pageable pageable = PageRequest.of(page, size, HISTORY_ORDER);
         
-        return records.map(record -> modelMapper.map(record, RecordDTO.class));
+        return recordRepository.findDTOsByHabitIdAndUserId(idHabit, userId, pageable);
+    }
+
+    /**
+     * Returns a page of the records of a habit using keyset pagination, newest first.
+     * Unlike {@link #findRecordsByHabit(Long, String, int, int)} there is no OFFSET scan and no COUNT query:
+     * each page starts right after the (date, id) position encoded in the cursor, so deep pages cost the same as the first.
+     *
+     * @param idHabit identifier of the habit to search for.
+     * @param email retrieved from the authenticated user's token.
+     * @param cursor token returned with the previous page; null or blank for the first page.
+     * @param size number of items per page.
+     * @return CursorPageDTO with the records and the cursor of the next page, if any.
+     * @throws BusinessRuleException if the cursor or the size are invalid.
+     * @throws ResourceNotFoundException if the user or the habit were not found.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RecordDTO> findRecordsByHabit(Long idHabit, String email, String cursor, int size){
+        if(size < 1){
+            throw new BusinessRuleException("Page size must be at least 1.");
+        }
+        Long userId = userIdResolver.resolve(email);
+
+        if(!habitRepository.existsByIdAndUserId(idHabit, userId)){
+            throw new ResourceNotFoundException("Habit", idHabit);
+        }
+
+        //One extra row tells whether there is a next page.
+        Limit limit = Limit.of(size + 1);
+        List<Record> records;
+        if(cursor == null || cursor.isBlank()){
+            records = recordRepository.findByHabitIdAndUserIdOrderByDateDescIdDesc(idHabit, userId, limit);
+        } else {
+            RecordCursor after = RecordCursor.decode(cursor);
+            records = recordRepository.findPageAfter(idHabit, userId, after.date(), after.id(), limit);
+        }
+
+        String nextCursor = null;
+        if(records.size() > size){
+            records = records.subList(0, size);
+            Record last = records.get(size - 1);
+            nextCursor = new RecordCursor(last.getDate(), last.getId()).encode();
+        }
+
+        List<RecordDTO> content = records.stream()
+                        .map(recordMapper::toDTO)
+                        .collect(Collectors.toList());
+        return new CursorPageDTO<>(content, nextCursor);
     }
 
     /**
      * Returns a list of records for a specific user on a given date.
      * The method first checks that the user exists; if not, throws {@link ResourceNotFoundException}.
-     * Then, it retrieves all records associated with that user and date.
-     * Finally, it maps the entities to DTOs for safe return.
+     * Then, it retrieves all records associated with that user and date, projected directly into DTOs.
      *
      * @param email retrieved from the authenticated user's token.
      * @param date the target date to search records for.
      * @return List of RecordDTOs with the user's records on the specified date.
      */
+    @Transactional(readOnly = true)
     public List<RecordDTO> findRecordsByDate(String email, LocalDate date){
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User", email));
+        Long userId = userIdResolver.resolve(email);
         
-        List<Record> records = recordRepository.findByDateAndUser(date, user);
-
-        return records.stream()
-                        .map(record -> modelMapper.map(record, RecordDTO.class))
-                        .collect(Collectors.toList());
+        return recordRepository.findDTOsByDateAndUserId(date, userId);
     }
     
 }
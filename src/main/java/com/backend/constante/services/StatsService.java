@@ -0,0 +1,141 @@
+package com.backend.constante.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.constante.dto.CompletionRateDTO;
+import com.backend.constante.dto.CompletionWindowsDTO;
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.HabitStatsDTO;
+import com.backend.constante.dto.PeriodCountDTO;
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.model.Habit;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.RecordRepository;
+import com.backend.constante.utils.Frequency;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class StatsService {
+    static final int[] WINDOWS = {7, 30, 90, 365};
+
+    private final RecordRepository recordRepository;
+    private final HabitRepository habitRepository;
+    private final UserIdResolver userIdResolver;
+
+    /**
+     * Returns the statistics of a habit of the authenticated user: completion rates over the last
+     * 7, 30, 90 and 365 days, completions per weekday and the month with the most completions.
+     * A weekly habit's rate counts the ISO weeks with at least one completion, not its completions.
+     * Every number is aggregated by the database, so no records are loaded.
+     *
+     * @param idHabit the ID of the habit in question.
+     * @param email retrieved from the user's token.
+     * @param today last day of the windows.
+     * @return HabitStatsDTO with the statistics of the habit.
+     * @throws ResourceNotFoundException if user or habit is invalid.
+     */
+    @Transactional(readOnly = true)
+    public HabitStatsDTO findHabitStats(Long idHabit, String email, LocalDate today){
+        Long userId = userIdResolver.resolve(email);
+
+        Habit habit = habitRepository.findByIdAndUserId(idHabit, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
+
+        List<CompletionWindowsDTO> windows = recordRepository.countCompletionWindowsByHabit(idHabit, userId,
+            today.minusDays(6), today.minusDays(29), today.minusDays(89), today.minusDays(364), today);
+        CompletionWindowsDTO counts = windows.isEmpty() ? new CompletionWindowsDTO(idHabit, 0L, 0L, 0L, 0L) : windows.get(0);
+
+        List<CompletionRateDTO> rates = new ArrayList<>();
+        for(int days : WINDOWS){
+            long expected = expected(habit.getMadeSince(), habit.getFrequency(), today, days);
+            long completions = Math.min(counts.count(days), expected);
+            rates.add(rate(days, completions, expected));
+        }
+
+        return toDTO(idHabit, rates,
+            recordRepository.countCompletionsByWeekdayOfHabit(idHabit, userId),
+            recordRepository.findBestMonthsOfHabit(idHabit, userId, Limit.of(1)));
+    }
+
+    /**
+     * Returns the same statistics summed over every habit of the authenticated user.
+     * Each habit contributes at most its own expected completions to a rate, so a weekly habit
+     * completed every day does not hide a daily one that is neglected.
+     *
+     * @param email retrieved from the user's token.
+     * @param today last day of the windows.
+     * @return HabitStatsDTO without habit ID.
+     */
+    @Transactional(readOnly = true)
+    public HabitStatsDTO findUserStats(String email, LocalDate today){
+        Long userId = userIdResolver.resolve(email);
+
+        Map<Long, CompletionWindowsDTO> counts = recordRepository.countCompletionWindowsByUser(userId,
+                today.minusDays(6), today.minusDays(29), today.minusDays(89), today.minusDays(364), today).stream()
+            .collect(Collectors.toMap(CompletionWindowsDTO::getHabitId, Function.identity()));
+        List<HabitDTO> habits = habitRepository.findDTOsByUserId(userId);
+
+        List<CompletionRateDTO> rates = new ArrayList<>();
+        for(int days : WINDOWS){
+            long completions = 0;
+            long expected = 0;
+            for(HabitDTO habit : habits){
+                long habitExpected = expected(habit.getMadeSince(), habit.getFrequency(), today, days);
+                CompletionWindowsDTO habitCounts = counts.get(habit.getId());
+                completions += habitCounts != null ? Math.min(habitCounts.count(days), habitExpected) : 0;
+                expected += habitExpected;
+            }
+            rates.add(rate(days, completions, expected));
+        }
+
+        return toDTO(null, rates,
+            recordRepository.countCompletionsByWeekdayOfUser(userId),
+            recordRepository.findBestMonthsOfUser(userId, Limit.of(1)));
+    }
+
+    //Periods (days or ISO weeks) of the window that the habit existed for; one completion is expected in each.
+    static long expected(LocalDate madeSince, Frequency frequency, LocalDate today, int days){
+        LocalDate start = today.minusDays(days - 1L);
+        if(madeSince != null && madeSince.isAfter(start)) start = madeSince;
+        if(start.isAfter(today)) return 0;
+
+        Frequency periods = Frequency.orDefault(frequency);
+        if(periods == Frequency.weekly){
+            return ChronoUnit.WEEKS.between(periods.periodStart(start), periods.periodStart(today)) + 1;
+        }
+        return ChronoUnit.DAYS.between(start, today) + 1;
+    }
+
+    private CompletionRateDTO rate(int days, long completions, long expected){
+        return new CompletionRateDTO(days, completions, expected, expected == 0 ? 0 : (double) completions / expected);
+    }
+
+    private HabitStatsDTO toDTO(Long habitId, List<CompletionRateDTO> rates, List<PeriodCountDTO> weekdays, List<PeriodCountDTO> bestMonths){
+        Map<DayOfWeek, Long> byWeekday = new EnumMap<>(DayOfWeek.class);
+        for(DayOfWeek day : DayOfWeek.values()) byWeekday.put(day, 0L);
+        //HQL numbers the days from Sunday (1) to Saturday (7).
+        weekdays.forEach(count -> byWeekday.put(DayOfWeek.SUNDAY.plus(count.getPeriod() - 1L), count.getCompletions()));
+
+        if(bestMonths.isEmpty()){
+            return new HabitStatsDTO(habitId, rates, byWeekday, null, 0);
+        }
+        PeriodCountDTO best = bestMonths.get(0);
+        YearMonth month = YearMonth.of(best.getPeriod() / 100, best.getPeriod() % 100);
+        return new HabitStatsDTO(habitId, rates, byWeekday, month, best.getCompletions());
+    }
+}
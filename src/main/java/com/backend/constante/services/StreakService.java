@@ -0,0 +1,174 @@
+package com.backend.constante.services;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.constante.dto.StreakDTO;
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.model.Habit;
+import com.backend.constante.model.HabitStreak;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.HabitStreakRepository;
+import com.backend.constante.repositories.RecordRepository;
+import com.backend.constante.utils.Frequency;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class StreakService {
+    private final HabitStreakRepository habitStreakRepository;
+    private final RecordRepository recordRepository;
+    private final HabitRepository habitRepository;
+    private final UserIdResolver userIdResolver;
+
+    /**
+     * Updates the streaks of a habit after a completion on the given date.
+     * Only the summary row is read and written, so the cost does not depend on the record history.
+     * A completion for a period earlier than the last one (e.g. a backfilled date) triggers a full rebuild,
+     * and so does a habit that has no summary row yet.
+     *
+     * @param habit the completed habit.
+     * @param date day of the completion.
+     */
+    @Transactional
+    public void registerCompletion(Habit habit, LocalDate date){
+        registerCompletions(habit, List.of(date));
+    }
+
+    /**
+     * Updates the streaks of a habit after several completions, locking its summary row once.
+     * Follows the same rules as {@link #registerCompletion(Habit, LocalDate)}: if any of the dates
+     * falls before the last period, the streaks are rebuilt a single time.
+     *
+     * @param habit the completed habit.
+     * @param dates days of the completions, in any order.
+     */
+    @Transactional
+    public void registerCompletions(Habit habit, Collection<LocalDate> dates){
+        List<LocalDate> sorted = dates.stream()
+            .filter(date -> habit.getMadeSince() == null || !date.isBefore(habit.getMadeSince()))
+            .sorted()
+            .toList();
+        if(sorted.isEmpty()) return;
+
+        Optional<HabitStreak> existing = habitStreakRepository.findWithLockByHabitId(habit.getId());
+        if(existing.isEmpty()){
+            rebuild(habit);
+            return;
+        }
+
+        Frequency frequency = Frequency.orDefault(habit.getFrequency());
+        HabitStreak streak = existing.get();
+        LocalDate lastPeriod = streak.getLastPeriod();
+
+        if(lastPeriod != null && frequency.periodStart(sorted.get(0)).isBefore(lastPeriod)){
+            rebuild(habit);
+            return;
+        }
+
+        boolean changed = false;
+        for(LocalDate date : sorted){
+            LocalDate period = frequency.periodStart(date);
+            if(lastPeriod != null && !period.isAfter(lastPeriod)) continue;
+
+            boolean consecutive = lastPeriod != null && period.equals(frequency.nextPeriod(lastPeriod));
+            streak.setCurrentStreak(consecutive ? streak.getCurrentStreak() + 1 : 1);
+            streak.setLongestStreak(Math.max(streak.getLongestStreak(), streak.getCurrentStreak()));
+            lastPeriod = period;
+            changed = true;
+        }
+        if(!changed) return;
+
+        streak.setLastPeriod(lastPeriod);
+        habitStreakRepository.save(streak);
+    }
+
+    /**
+     * Recomputes the streaks of a habit from its whole completion history.
+     * Needed whenever the frequency or the start date of the habit changes, since both redefine the periods.
+     * Callers hold the habit lock, so the summary row is not inserted twice.
+     *
+     * @param habit the habit to rebuild.
+     * @return the updated summary row.
+     */
+    @Transactional
+    public HabitStreak rebuild(Habit habit){
+        HabitStreak computed = compute(habit);
+
+        HabitStreak streak = habitStreakRepository.findById(habit.getId())
+            .orElseGet(HabitStreak::new);
+        streak.setHabitId(habit.getId());
+        streak.setCurrentStreak(computed.getCurrentStreak());
+        streak.setLongestStreak(computed.getLongestStreak());
+        streak.setLastPeriod(computed.getLastPeriod());
+
+        return habitStreakRepository.save(streak);
+    }
+
+    //Streaks of the whole completion history, without reading or writing the summary row.
+    private HabitStreak compute(Habit habit){
+        Frequency frequency = Frequency.orDefault(habit.getFrequency());
+        List<LocalDate> dates = recordRepository.findCompletedDatesByHabitId(habit.getId());
+
+        int current = 0;
+        int longest = 0;
+        LocalDate lastPeriod = null;
+        for(LocalDate date : dates){
+            if(habit.getMadeSince() != null && date.isBefore(habit.getMadeSince())) continue;
+
+            LocalDate period = frequency.periodStart(date);
+            if(period.equals(lastPeriod)) continue;
+
+            current = lastPeriod != null && period.equals(frequency.nextPeriod(lastPeriod)) ? current + 1 : 1;
+            longest = Math.max(longest, current);
+            lastPeriod = period;
+        }
+
+        HabitStreak streak = new HabitStreak();
+        streak.setHabitId(habit.getId());
+        streak.setCurrentStreak(current);
+        streak.setLongestStreak(longest);
+        streak.setLastPeriod(lastPeriod);
+        return streak;
+    }
+
+    /**
+     * Returns the current and longest streak of a habit of the authenticated user.
+     * The current streak is reported as 0 once a whole period has passed without a completion.
+     * A habit without a summary row yet gets its streaks computed from the records, without saving them:
+     * only the write path, under the habit lock, inserts summary rows.
+     *
+     * @param idHabit the ID of the habit in question.
+     * @param email retrieved from the user's token.
+     * @return StreakDTO with the streaks of the habit.
+     * @throws ResourceNotFoundException if user or habit is invalid.
+     */
+    @Transactional(readOnly = true)
+    public StreakDTO findStreak(Long idHabit, String email){
+        Long userId = userIdResolver.resolve(email);
+
+        Habit habit = habitRepository.findByIdAndUserId(idHabit, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Habit", idHabit));
+
+        HabitStreak streak = habitStreakRepository.findById(idHabit)
+            .orElseGet(() -> compute(habit));
+
+        Frequency frequency = Frequency.orDefault(habit.getFrequency());
+        LocalDate currentPeriod = frequency.periodStart(LocalDate.now());
+        LocalDate lastPeriod = streak.getLastPeriod();
+        boolean alive = lastPeriod != null && !frequency.nextPeriod(lastPeriod).isBefore(currentPeriod);
+
+        return new StreakDTO(idHabit, alive ? streak.getCurrentStreak() : 0, streak.getLongestStreak(), lastPeriod);
+    }
+
+    @Transactional
+    public void deleteStreak(Long habitId){
+        habitStreakRepository.deleteById(habitId);
+    }
+}
@@ -0,0 +1,40 @@
+package com.backend.constante.services;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.model.User;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps {@link UserIdResolver} consistent with the users table.
+ * The resolver is looked up lazily because entity listeners are created while the
+ * persistence unit it depends on is still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+    private final ObjectProvider<UserIdResolver> userIdResolver;
+
+    @PostLoad
+    public void remember(User user){
+        user.setLoadedEmail(user.getEmail());
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(User user){
+        userIdResolver.getObject().evict(user.getEmail());
+        //After an email change the previous email must stop resolving to this user.
+        if(user.getLoadedEmail() != null && !user.getLoadedEmail().equals(user.getEmail())){
+            userIdResolver.getObject().evict(user.getLoadedEmail());
+        }
+        user.setLoadedEmail(user.getEmail());
+    }
+}
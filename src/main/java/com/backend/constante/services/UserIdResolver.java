@@ -0,0 +1,56 @@
+package com.backend.constante.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Maps the email of the authenticated user to its id.
+ * Services only need the id as a foreign key, so the full {@code User} row is never loaded for it.
+ * Ids are kept in a bounded cache that {@link UserCacheEvictionListener} evicts whenever a user is saved or removed.
+ */
+@Component
+public class UserIdResolver {
+    private final UserRepository userRepository;
+    private final AsyncCache<String, Long> ids;
+    private final Executor loader;
+
+    public UserIdResolver(UserRepository userRepository,
+                        @Value("${users.id-cache.max-size:10000}") long maxSize,
+                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads){
+        this.userRepository = userRepository;
+        this.ids = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .buildAsync();
+        this.loader = CacheLoads.executor(virtualThreads, "user-id-load-");
+    }
+
+    /**
+     * Returns the id of the user registered with the given email.
+     *
+     * @param email retrieved from the user's token.
+     * @return id of the user.
+     * @throws ResourceNotFoundException if no user is registered with that email.
+     */
+    public Long resolve(String email){
+        //Misses are not cached (a load completing with null is dropped), so a user registered right after a failed lookup is found.
+        Long id = CacheLoads.join(ids.get(email, (key, executor) ->
+            CompletableFuture.supplyAsync(() -> userRepository.findIdByEmail(key).orElse(null), loader)));
+        if(id == null){
+            throw new ResourceNotFoundException("User", email);
+        }
+        return id;
+    }
+
+    public void evict(String email){
+        ids.synchronous().invalidate(email);
+    }
+}
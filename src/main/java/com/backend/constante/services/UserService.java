@@ -8,6 +8,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.backend.constante.dto.CreateUserDTO;
 import com.backend.constante.exception.BusinessRuleException;
@@ -22,6 +24,9 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
+    //Hashing the password takes far longer than the queries, so no connection is held around it:
+    //each repository call runs in its own short transaction and the unique email index rejects a concurrent duplicate.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void registerUser(CreateUserDTO newUser){
         if(userRepository.findByEmail(newUser.getEmail()).isPresent()){
             throw new BusinessRuleException("The email has already been registered.");
@@ -35,10 +40,12 @@ public class UserService implements UserDetailsService {
         userRepository.save(user);
     } 
     
+    @Transactional(readOnly = true)
     public boolean findByEmail(String email){
         return userRepository.existsByEmail(email);
     }
 
+    @Transactional(readOnly = true)
     @Override 
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User usuario = userRepository.findByEmail(email)
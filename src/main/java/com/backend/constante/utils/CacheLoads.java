@@ -0,0 +1,49 @@
+package com.backend.constante.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Runs the cache loads that block on the database.
+ * A synchronous Caffeine load runs inside {@code ConcurrentHashMap.compute}, whose {@code synchronized} block
+ * pins a virtual thread to its carrier for the whole query. With virtual threads the load gets its own
+ * virtual thread and the caller parks on the future instead; with platform threads it stays on the caller.
+ */
+public final class CacheLoads {
+    private CacheLoads(){
+    }
+
+    public static Executor executor(boolean virtualThreads, String threadNamePrefix){
+        if(!virtualThreads) return Runnable::run;
+
+        return taskExecutor(true, threadNamePrefix);
+    }
+
+    /**
+     * Thread per task executor for other background work that blocks on the database, on virtual threads when
+     * {@code spring.threads.virtual.enabled} is set. Callers bound it with a concurrency limit where needed.
+     */
+    public static SimpleAsyncTaskExecutor taskExecutor(boolean virtualThreads, String threadNamePrefix){
+        if(virtualThreads && Runtime.version().feature() < 21){
+            throw new IllegalStateException("spring.threads.virtual.enabled requires Java 21 or later, running on " + Runtime.version());
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    /**
+     * Waits for a load, rethrowing what the loader threw instead of a {@link CompletionException}.
+     */
+    public static <V> V join(CompletableFuture<V> load){
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if(ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.backend.constante.utils;
+
+/**
+ * Strong entity tags built from version numbers, so a conditional request is answered
+ * from a version check without loading the resource.
+ */
+public final class ETags {
+    private ETags(){
+    }
+
+    public static String habit(Long habitId, Long version){
+        return "\"habit-" + habitId + "-" + version + "\"";
+    }
+
+    public static String habits(Long userId, Long habitsVersion){
+        return "\"habits-" + userId + "-" + habitsVersion + "\"";
+    }
+
+    /**
+     * Strong comparison of an {@code If-Match} header against the current tag: {@code *} or any tag
+     * of the list matches, weak tags never do.
+     */
+    public static boolean matches(String ifMatch, String etag){
+        for(String candidate : ifMatch.split(",")){
+            String tag = candidate.trim();
+            if(tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -1,5 +1,25 @@
 package com.backend.constante.utils;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
 public enum Frequency {
-    daily, weekly
+    daily, weekly;
+
+    /**
+     * Returns the first day of the period (day or ISO week) that contains the given date.
+     * Completions inside the same period count once towards a streak.
+     */
+    public LocalDate periodStart(LocalDate date){
+        return this == weekly ? date.with(DayOfWeek.MONDAY) : date;
+    }
+
+    public LocalDate nextPeriod(LocalDate periodStart){
+        return this == weekly ? periodStart.plusWeeks(1) : periodStart.plusDays(1);
+    }
+
+    //Habits created without a frequency are treated as daily.
+    public static Frequency orDefault(Frequency frequency){
+        return frequency == null ? daily : frequency;
+    }
 }
@@ -0,0 +1,35 @@
+package com.backend.constante.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.backend.constante.exception.BusinessRuleException;
+
+/**
+ * Position of the last record of a page in the (date desc, id desc) order of a habit's history.
+ * Clients only see it as an opaque URL-safe token and send it back to get the following page.
+ */
+public record RecordCursor(LocalDate date, Long id) {
+
+    public String encode(){
+        String raw = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token value received in the {@code cursor} parameter.
+     * @return the decoded position.
+     * @throws BusinessRuleException if the token wasn't produced by {@link #encode()}.
+     */
+    public static RecordCursor decode(String token){
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new RecordCursor(LocalDate.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException ex) {
+            throw new BusinessRuleException("Invalid cursor.");
+        }
+    }
+}
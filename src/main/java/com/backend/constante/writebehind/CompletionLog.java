@@ -0,0 +1,164 @@
+package com.backend.constante.writebehind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only file of the completions accepted by {@link CompletionWriteBehind}, one line per entry.
+ * Every append is forced to disk with {@link #sync(long)} before the request is answered; one force covers
+ * every append written before it, so concurrent requests share it (group commit). A separate checkpoint file
+ * holds the {@code seq} of the last entry written to the database; the entries after it are replayed on startup.
+ * Once everything has been flushed the log is truncated, so it only grows with the backlog.
+ * Entries that can't be written at all are moved to a dead-letter file next to the log, in the same line format.
+ * The caller serializes appends, checkpoints and truncation; {@link #sync(long)} may be called concurrently with them.
+ */
+@Slf4j
+class CompletionLog implements AutoCloseable {
+    private final Path path;
+    private final Path checkpointPath;
+    private final Path deadLetterPath;
+    private final FileChannel channel;
+    //A lock rather than a monitor: a virtual thread waiting for the force parks instead of pinning its carrier.
+    private final ReentrantLock forceLock = new ReentrantLock();
+    //Appends written and appends known to be on disk. Never reset, unlike the seq of the entries.
+    private volatile long appended;
+    private volatile long forced;
+
+    CompletionLog(Path path){
+        this.path = path;
+        this.checkpointPath = path.resolveSibling(path.getFileName() + ".checkpoint");
+        this.deadLetterPath = path.resolveSibling(path.getFileName() + ".dead");
+        try {
+            if(path.getParent() != null) Files.createDirectories(path.getParent());
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't open the completion log " + path, ex);
+        }
+    }
+
+    /**
+     * Returns the entries after the checkpoint, oldest first. A line cut short by a crash was never
+     * acknowledged, so it is skipped along with anything after it.
+     */
+    List<PendingCompletion> unflushed(){
+        long checkpoint = checkpoint();
+        List<PendingCompletion> entries = new ArrayList<>();
+        try {
+            for(String line : Files.readAllLines(path, StandardCharsets.UTF_8)){
+                PendingCompletion entry;
+                try {
+                    entry = PendingCompletion.parse(line);
+                } catch (RuntimeException ex) {
+                    log.warn("Ignoring a truncated entry at the end of the completion log: {}", line);
+                    break;
+                }
+                if(entry.seq() > checkpoint) entries.add(entry);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't read the completion log " + path, ex);
+        }
+        return entries;
+    }
+
+    /**
+     * Writes an entry without forcing it to disk.
+     *
+     * @return the ticket to pass to {@link #sync(long)}.
+     */
+    long append(PendingCompletion entry){
+        try {
+            ByteBuffer line = ByteBuffer.wrap((entry.toLine() + "\n").getBytes(StandardCharsets.UTF_8));
+            channel.position(channel.size());
+            while(line.hasRemaining()) channel.write(line);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't append to the completion log " + path, ex);
+        }
+        return ++appended;
+    }
+
+    /**
+     * Returns once the append of the ticket is on disk. The first caller forces every append written so far;
+     * the ones arriving meanwhile wait for it and return without forcing again if it covered them.
+     */
+    void sync(long ticket){
+        if(forced >= ticket) return;
+        forceLock.lock();
+        try {
+            if(forced >= ticket) return;
+            long target = appended;
+            channel.force(false);
+            forced = target;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't force the completion log " + path, ex);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Appends an entry to the dead-letter file, forced to disk, before the log moves past it.
+     */
+    void deadLetter(PendingCompletion entry){
+        try(FileChannel deadLetters = FileChannel.open(deadLetterPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            ByteBuffer line = ByteBuffer.wrap((entry.toLine() + "\n").getBytes(StandardCharsets.UTF_8));
+            while(line.hasRemaining()) deadLetters.write(line);
+            deadLetters.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't write to the completion dead-letter file " + deadLetterPath, ex);
+        }
+    }
+
+    long checkpoint(){
+        try {
+            return Files.exists(checkpointPath) ? Long.parseLong(Files.readString(checkpointPath).trim()) : 0;
+        } catch (IOException | NumberFormatException ex) {
+            //Without a checkpoint every entry is replayed, which is safe because replays are upserts.
+            log.warn("Can't read the completion log checkpoint {}, replaying the whole log", checkpointPath);
+            return 0;
+        }
+    }
+
+    void checkpoint(long seq){
+        try {
+            Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            Files.writeString(temp, Long.toString(seq));
+            Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't write the completion log checkpoint " + checkpointPath, ex);
+        }
+    }
+
+    //Empties the log once every entry is in the database; the next entries start again from seq 1.
+    //The checkpoint goes first: a crash in between replays entries already written, never skips new ones.
+    void truncate(){
+        try {
+            Files.deleteIfExists(checkpointPath);
+            channel.truncate(0);
+            channel.force(true);
+            forced = appended;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't truncate the completion log " + path, ex);
+        }
+    }
+
+    @Override
+    public void close(){
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            log.warn("Can't close the completion log {}", path, ex);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.backend.constante.writebehind;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.exception.BusinessRuleException;
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.exception.ServiceUnavailableException;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.services.RecordService;
+import com.backend.constante.services.UserIdResolver;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in write-behind path for {@code POST /records/{habitId}} ({@code records.write-behind.enabled}).
+ * A completion is validated, appended to the {@link CompletionLog} and to a bounded in-memory queue, and
+ * the request is answered right away. A single flusher thread drains the queue in batches through
+ * {@link RecordService#applyPending(List)}, so streaks, heatmaps and daily summaries stay consistent.
+ * <p>
+ * Entries left in the log by a crash are written before the application starts serving requests, and on
+ * shutdown the queue is drained after the web server has stopped. A batch that keeps failing is written one entry
+ * at a time and the entries that still fail go to the dead-letter file of the log, so one bad completion can't
+ * hold back the ones behind it. When the queue is full, {@link #submit}
+ * rejects the completion: saving it synchronously instead could be overtaken by an older queued completion
+ * of the same habit and day.
+ */
+@Slf4j
+@Component
+public class CompletionWriteBehind implements SmartLifecycle {
+    //Starts before the web server and stops after it, so no request is accepted once draining has begun.
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final RecordService recordService;
+    private final HabitRepository habitRepository;
+    private final UserIdResolver userIdResolver;
+    private final boolean enabled;
+    private final Path logPath;
+    private final int capacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration flushInterval;
+    private final Duration shutdownTimeout;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private BlockingQueue<PendingCompletion> queue;
+    private CompletionLog completionLog;
+    private long lastSeq;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public CompletionWriteBehind(RecordService recordService,
+                                HabitRepository habitRepository,
+                                UserIdResolver userIdResolver,
+                                @Value("${records.write-behind.enabled:false}") boolean enabled,
+                                @Value("${records.write-behind.log-path:data/completions.log}") Path logPath,
+                                @Value("${records.write-behind.capacity:10000}") int capacity,
+                                @Value("${records.write-behind.batch-size:500}") int batchSize,
+                                @Value("${records.write-behind.max-attempts:10}") int maxAttempts,
+                                @Value("${records.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                @Value("${records.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout){
+        this.recordService = recordService;
+        this.habitRepository = habitRepository;
+        this.userIdResolver = userIdResolver;
+        this.enabled = enabled;
+        this.logPath = logPath;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Accepts a completion of the authenticated user for a later write.
+     * Ownership and date are checked now, so an accepted completion only fails to be written if the habit
+     * is deleted before the flush.
+     *
+     * @return the accepted record, or empty if write-behind is disabled.
+     * @throws BusinessRuleException if the date is in the future.
+     * @throws ResourceNotFoundException if the user or the habit were not found.
+     * @throws ServiceUnavailableException if the queue is full or shutting down.
+     */
+    public Optional<RecordDTO> submit(String email, Long idHabit, LocalDate date, boolean completed){
+        if(!enabled) return Optional.empty();
+
+        LocalDate today = LocalDate.now();
+        LocalDate day = date != null ? date : today;
+        if(day.isAfter(today)){
+            throw new BusinessRuleException("Completions can't be dated in the future.");
+        }
+        Long userId = userIdResolver.resolve(email);
+        if(!habitRepository.existsByIdAndUserId(idHabit, userId)){
+            throw new ResourceNotFoundException("Habit", idHabit);
+        }
+
+        long ticket;
+        appendLock.lock();
+        try {
+            //Only the flusher takes from the queue, so a free slot checked under the lock is still free below.
+            if(!running || queue.remainingCapacity() == 0){
+                throw new ServiceUnavailableException("Too many completions waiting to be saved, try again later.");
+            }
+
+            PendingCompletion entry = new PendingCompletion(++lastSeq, userId, idHabit, day, completed);
+            ticket = completionLog.append(entry);
+            queue.add(entry);
+        } finally {
+            appendLock.unlock();
+        }
+        //Forced outside the lock, so the requests appending meanwhile share the next force.
+        completionLog.sync(ticket);
+        return Optional.of(new RecordDTO(idHabit, day, completed));
+    }
+
+    public int pending(){
+        return queue != null ? queue.size() : 0;
+    }
+
+    @Override
+    public void start(){
+        if(!enabled) return;
+
+        completionLog = new CompletionLog(logPath);
+        List<PendingCompletion> unflushed = completionLog.unflushed();
+        for(int start = 0; start < unflushed.size(); start += batchSize){
+            if(!write(unflushed.subList(start, Math.min(start + batchSize, unflushed.size())), () -> true)){
+                throw new IllegalStateException("Interrupted while replaying the completion log " + logPath);
+            }
+        }
+        completionLog.truncate();
+        if(!unflushed.isEmpty()) log.info("Replayed {} completions from {}", unflushed.size(), logPath);
+
+        queue = new ArrayBlockingQueue<>(capacity);
+        lastSeq = 0;
+        running = true;
+        flusher = new Thread(this::drain, "completion-flusher");
+        flusher.start();
+    }
+
+    @Override
+    public void stop(){
+        if(!running) return;
+
+        appendLock.lock();
+        try {
+            running = false;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if(flusher.isAlive()){
+            log.warn("{} completions were not flushed before shutdown; they will be replayed from {}", queue.size(), logPath);
+            flusher.interrupt();
+        }
+        completionLog.close();
+    }
+
+    @Override
+    public boolean isRunning(){
+        return running;
+    }
+
+    @Override
+    public int getPhase(){
+        return PHASE;
+    }
+
+    private void drain(){
+        List<PendingCompletion> batch = new ArrayList<>(batchSize);
+        while(running || !queue.isEmpty()){
+            try {
+                PendingCompletion first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if(first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            if(!flush(batch)) return;
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch and moves the log past it. During shutdown a failing batch is left in the log for the next start.
+     *
+     * @return false if the batch was given up.
+     */
+    private boolean flush(List<PendingCompletion> batch){
+        if(!write(batch, () -> running)) return false;
+
+        long flushed = batch.get(batch.size() - 1).seq();
+        appendLock.lock();
+        try {
+            if(queue.isEmpty() && flushed == lastSeq){
+                completionLog.truncate();
+                lastSeq = 0;
+            } else {
+                completionLog.checkpoint(flushed);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Applies a batch, retrying with a growing delay up to {@code maxAttempts} times while {@code keepTrying} holds.
+     * Then each entry gets one more attempt on its own and the ones that fail are dead-lettered, so a database
+     * outage longer than the retries dead-letters the batch too.
+     *
+     * @return false if {@code keepTrying} stopped holding before the batch was written.
+     */
+    private boolean write(List<PendingCompletion> batch, BooleanSupplier keepTrying){
+        for(int attempt = 1; attempt <= maxAttempts; attempt++){
+            try {
+                recordService.applyPending(batch);
+                return true;
+            } catch (RuntimeException ex) {
+                log.error("Flushing {} completions failed (attempt {} of {})", batch.size(), attempt, maxAttempts, ex);
+                if(!keepTrying.getAsBoolean()) return false;
+                if(attempt == maxAttempts) break;
+                try {
+                    Thread.sleep(Math.min(30_000, flushInterval.toMillis() << Math.min(attempt, 8)));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+
+        for(PendingCompletion entry : batch){
+            try {
+                recordService.applyPending(List.of(entry));
+            } catch (RuntimeException ex) {
+                log.error("Giving up on completion {}, moved to the dead-letter file of {}", entry, logPath, ex);
+                completionLog.deadLetter(entry);
+            }
+        }
+        return true;
+    }
+}
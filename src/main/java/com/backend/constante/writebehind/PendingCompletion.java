@@ -0,0 +1,22 @@
+package com.backend.constante.writebehind;
+
+import java.time.LocalDate;
+
+/**
+ * A completion accepted by {@link CompletionWriteBehind} and not yet written to {@code records}.
+ * {@code seq} orders the entries of the log; entries up to the checkpoint are already in the database.
+ */
+public record PendingCompletion(long seq, Long userId, Long habitId, LocalDate date, boolean completed) {
+
+    String toLine(){
+        return seq + "," + userId + "," + habitId + "," + date + "," + (completed ? 1 : 0);
+    }
+
+    static PendingCompletion parse(String line){
+        String[] fields = line.split(",");
+        if(fields.length != 5) throw new IllegalArgumentException("Malformed completion: " + line);
+
+        return new PendingCompletion(Long.parseLong(fields[0]), Long.valueOf(fields[1]), Long.valueOf(fields[2]),
+            LocalDate.parse(fields[3]), "1".equals(fields[4]));
+    }
+}
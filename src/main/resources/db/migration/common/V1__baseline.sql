@@ -0,0 +1,27 @@
+-- Schema as Hibernate created it (ddl-auto=update) before migrations were introduced.
+-- Existing databases are baselined at this version and start from V2.
+
+create table users (
+    id bigint generated by default as identity primary key,
+    username varchar(255),
+    email varchar(255),
+    password varchar(255)
+);
+
+create table habits (
+    id bigint generated by default as identity primary key,
+    name varchar(255),
+    description varchar(255),
+    made_since date,
+    frequency varchar(255) check (frequency in ('daily', 'weekly')),
+    reminder_time time(6),
+    user_id bigint not null constraint fk_habits_user references users (id)
+);
+
+create table records (
+    id bigint generated by default as identity primary key,
+    id_user bigint not null constraint fk_records_user references users (id),
+    id_habit bigint not null constraint fk_records_habit references habits (id),
+    date date,
+    completed boolean
+);
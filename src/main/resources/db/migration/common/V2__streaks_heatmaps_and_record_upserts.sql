@@ -0,0 +1,34 @@
+-- Objects added while the schema was still managed by ddl-auto=update.
+-- Every statement tolerates a database where Hibernate already created them.
+
+-- Token revocation (users.token_version).
+alter table users add column if not exists token_version integer default 0 not null;
+
+-- Incremental streaks.
+create table if not exists habit_streaks (
+    habit_id bigint primary key,
+    current_streak integer not null,
+    longest_streak integer not null,
+    last_period date
+);
+
+-- Yearly heatmaps, one bit per day. The key starts with habit_id so per-habit lookups and deletes use it.
+create table if not exists habit_year_bitmaps (
+    habit_id bigint not null,
+    calendar_year integer not null,
+    user_id bigint,
+    bits bytea not null,
+    primary key (habit_id, calendar_year)
+);
+
+-- Record ids come from a pooled sequence (allocation size 50) so inserts can be batched.
+-- On PostgreSQL, V2_1 moves it past the ids already in the table.
+create sequence if not exists records_seq start with 1 increment by 50;
+
+-- One record per habit, user and day: keep the oldest row of any duplicates, then enforce it.
+delete from records r
+where exists (
+    select 1 from records d
+    where d.id_habit = r.id_habit and d.id_user = r.id_user and d.date = r.date and d.id < r.id
+);
+create unique index if not exists uk_records_habit_user_date on records (id_habit, id_user, date);
@@ -0,0 +1,13 @@
+-- Indexes for the lookups every request makes. Checked by QueryPlanTests.
+
+-- Resolving the authenticated user (login, UserIdResolver).
+create unique index if not exists ux_users_email on users (email);
+
+-- Habits of a user.
+create index if not exists ix_habits_user on habits (user_id);
+
+-- Records of a user on a day. Records of a habit use uk_records_habit_user_date.
+create index if not exists ix_records_user_date on records (id_user, date);
+
+-- Heatmaps of every habit of a user.
+create index if not exists ix_habit_year_bitmaps_user_year on habit_year_bitmaps (user_id, calendar_year);
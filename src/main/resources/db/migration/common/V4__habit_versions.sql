@@ -0,0 +1,5 @@
+-- Version of each habit (optimistic locking and the ETag of GET /habits/{habitId}).
+alter table habits add column if not exists version bigint not null default 0;
+
+-- Bumped with every change to a user's habits; the ETag of GET /habits.
+alter table users add column if not exists habits_version bigint not null default 0;
@@ -0,0 +1,8 @@
+-- Ids (jti) of access and refresh tokens revoked before they expire, e.g. on logout.
+-- Rows are deleted once the token has expired anyway.
+create table if not exists revoked_tokens (
+    jti varchar(36) primary key,
+    expires_at timestamp(6) with time zone not null
+);
+
+create index if not exists ix_revoked_tokens_expires_at on revoked_tokens (expires_at);
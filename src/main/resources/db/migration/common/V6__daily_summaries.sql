@@ -0,0 +1,19 @@
+-- Per-user rollup of each day: habits that existed (due) and habits completed.
+-- Kept up to date by DailySummaryService in the same transaction as records and habits;
+-- DailySummaryRebuilder rebuilds it from records with the same statement as the backfill below.
+create table if not exists daily_summaries (
+    user_id bigint not null,
+    date date not null,
+    due integer not null,
+    completed integer not null,
+    primary key (user_id, date)
+);
+
+insert into daily_summaries (user_id, date, due, completed)
+select r.id_user, r.date,
+    (select count(*) from habits h where h.user_id = r.id_user and (h.made_since is null or h.made_since <= r.date)),
+    count(case when r.completed then 1 end)
+from records r
+where r.date is not null
+    and not exists (select 1 from daily_summaries d where d.user_id = r.id_user and d.date = r.date)
+group by r.id_user, r.date;
@@ -0,0 +1,8 @@
+-- Reminders delivered each day. The instance that delivers a reminder claims its row first,
+-- so several instances ticking the same habits never deliver it twice.
+-- Rows before yesterday are deleted by the scheduler.
+create table if not exists reminder_deliveries (
+    date date not null,
+    habit_id bigint not null,
+    primary key (date, habit_id)
+);
@@ -0,0 +1,13 @@
+-- The backfill in V6 counted every habit as due on every day since its start. Recount due with the rule
+-- DailySummaryUpsertRepositoryImpl maintains: a weekly habit is only due on the days it was completed,
+-- or on every day of an ISO week in which it wasn't completed.
+update daily_summaries d set due = (
+    select count(*) from habits h
+    where h.user_id = d.user_id
+        and (h.made_since is null or h.made_since <= d.date)
+        and (h.frequency is null or h.frequency <> 'weekly'
+            or exists (select 1 from records w where w.id_habit = h.id and w.date = d.date and w.completed)
+            or not exists (select 1 from records w where w.id_habit = h.id and w.completed
+                and w.date between d.date - cast(extract(isodow from d.date) as integer) + 1
+                    and d.date - cast(extract(isodow from d.date) as integer) + 7))
+);
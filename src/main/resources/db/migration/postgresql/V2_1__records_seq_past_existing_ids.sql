@@ -0,0 +1,2 @@
+-- Records inserted with IDENTITY before records_seq existed would collide with its first values.
+select setval('records_seq', (select coalesce(max(id), 0) + 1 from records));
@@ -0,0 +1,64 @@
+package com.backend.constante.config;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.backend.constante.security.TokenType;
+import com.backend.constante.security.VerifiedToken;
+
+import io.jsonwebtoken.JwtException;
+
+public class JwtUtilTests {
+    private static final String OLD = "old:a-secret-of-at-least-thirty-two-bytes-1";
+    private static final String NEW = "new:a-secret-of-at-least-thirty-two-bytes-2";
+
+    private static JwtUtil node(String keys){
+        return new JwtUtil(keys, "", Duration.ofMinutes(15), Duration.ofDays(30));
+    }
+
+    @Test
+    void anyNodeWithTheSameKeysVerifiesTheToken(){
+        String token = node(OLD).generateToken(1L, "example@gmail.com", 0);
+
+        VerifiedToken verified = node(OLD).verifyToken(token);
+
+        assertEquals(1L, verified.userId());
+        assertEquals(TokenType.access, verified.type());
+    }
+
+    @Test
+    void tokensOfTheOldKeyStayValidDuringTheRotation(){
+        String before = node(OLD).generateToken(1L, "example@gmail.com", 0);
+        JwtUtil rotated = node(NEW + "," + OLD);
+        String after = rotated.generateRefreshToken(1L, "example@gmail.com", 0);
+
+        assertEquals("example@gmail.com", rotated.verifyToken(before).email());
+        //Nodes that only appended the new key already accept what the rotated ones sign.
+        assertEquals(TokenType.refresh, node(OLD + "," + NEW).verifyToken(after).type());
+    }
+
+    @Test
+    void tokensOfARemovedKeyAreRejected(){
+        String token = node(OLD).generateToken(1L, "example@gmail.com", 0);
+
+        assertThrows(JwtException.class, () -> node(NEW).verifyToken(token));
+        assertThrows(JwtException.class, () -> new JwtUtil().verifyToken(token));
+    }
+
+    @Test
+    void aSingleSecretIsUsedWhenNoKeyRingIsConfigured(){
+        JwtUtil first = new JwtUtil("", "a-secret-of-at-least-thirty-two-bytes-3", Duration.ofMinutes(15), Duration.ofDays(30));
+        JwtUtil second = new JwtUtil("", "a-secret-of-at-least-thirty-two-bytes-3", Duration.ofMinutes(15), Duration.ofDays(30));
+
+        assertEquals(2L, second.verifyToken(first.generateToken(2L, "other@gmail.com", 3)).userId());
+    }
+
+    @Test
+    void keysMustBeIdSecretPairs(){
+        assertThrows(IllegalArgumentException.class, () -> JwtKeyRing.parse("a-secret-of-at-least-thirty-two-bytes"));
+        assertThrows(IllegalArgumentException.class, () -> JwtKeyRing.parse(OLD + "," + OLD));
+    }
+}
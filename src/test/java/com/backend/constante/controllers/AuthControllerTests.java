@@ -6,14 +6,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.backend.constante.dto.LoginRequest;
+import com.backend.constante.dto.RefreshRequest;
+import com.backend.constante.dto.TokenDTO;
 import com.backend.constante.dto.UserDTO;
 import com.backend.constante.model.User;
 import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.security.TokenVersionRegistry;
 
 @SpringBootTest(webEnvironment= SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class AuthControllerTests {
@@ -27,6 +33,9 @@ public class AuthControllerTests {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     private static final String EMAIL = "example@gmail.com";
     private static final String PASSWORD = "password123";
 
@@ -77,4 +86,78 @@ public class AuthControllerTests {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
     }
+
+    @Test
+    void requestWithTokenOfAnOldVersionReturnUNAUTHORIZED(){
+        String token = loginAndGetToken();
+
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        tokenVersionRegistry.evict(user.getId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        ResponseEntity<String> response = testRestTemplate.exchange(
+            "/habits",
+            HttpMethod.GET,
+            new HttpEntity<>(headers),
+            String.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void loginUserLockedOutAfterRepeatedFailuresReturnTOO_MANY_REQUESTS(){
+        LoginRequest request = new LoginRequest("bruteforced@gmail.com", "guess");
+
+        for(int attempt = 0; attempt < 5; attempt++){
+            testRestTemplate.postForEntity("/auth/login", request, String.class);
+        }
+        ResponseEntity<String> response = testRestTemplate.postForEntity("/auth/login", request, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void refreshTokenIsUsedOnceAndLogoutRevokesTheAccessToken(){
+        UserDTO login = testRestTemplate.postForEntity("/auth/login", new LoginRequest(EMAIL, PASSWORD), UserDTO.class).getBody();
+
+        ResponseEntity<TokenDTO> refreshed = testRestTemplate.postForEntity("/auth/refresh", new RefreshRequest(login.getRefreshToken()), TokenDTO.class);
+        ResponseEntity<String> reused = testRestTemplate.postForEntity("/auth/refresh", new RefreshRequest(login.getRefreshToken()), String.class);
+
+        assertThat(refreshed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(refreshed.getBody().getToken());
+        ResponseEntity<String> logout = testRestTemplate.exchange("/auth/logout", HttpMethod.POST,
+            new HttpEntity<>(new RefreshRequest(refreshed.getBody().getRefreshToken()), headers), String.class);
+        ResponseEntity<String> afterLogout = testRestTemplate.exchange("/habits", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> refreshAfterLogout = testRestTemplate.postForEntity("/auth/refresh",
+            new RefreshRequest(refreshed.getBody().getRefreshToken()), String.class);
+
+        assertThat(logout.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterLogout.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(refreshAfterLogout.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void logoutAllRejectsTheTokensOfEveryDevice(){
+        UserDTO phone = testRestTemplate.postForEntity("/auth/login", new LoginRequest(EMAIL, PASSWORD), UserDTO.class).getBody();
+        UserDTO laptop = testRestTemplate.postForEntity("/auth/login", new LoginRequest(EMAIL, PASSWORD), UserDTO.class).getBody();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(phone.getToken());
+        testRestTemplate.exchange("/auth/logout-all", HttpMethod.POST, new HttpEntity<>(headers), String.class);
+
+        HttpHeaders laptopHeaders = new HttpHeaders();
+        laptopHeaders.setBearerAuth(laptop.getToken());
+        ResponseEntity<String> request = testRestTemplate.exchange("/habits", HttpMethod.GET, new HttpEntity<>(laptopHeaders), String.class);
+        ResponseEntity<String> refresh = testRestTemplate.postForEntity("/auth/refresh", new RefreshRequest(laptop.getRefreshToken()), String.class);
+
+        assertThat(request.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(refresh.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
 }
@@ -0,0 +1,123 @@
+package com.backend.constante.controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.backend.constante.dto.LoginRequest;
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.dto.UserDTO;
+import com.backend.constante.model.Habit;
+import com.backend.constante.model.Record;
+import com.backend.constante.model.User;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.RecordRepository;
+import com.backend.constante.repositories.UserRepository;
+
+@SpringBootTest(webEnvironment=SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "records.write-behind.enabled=true",
+    "records.write-behind.log-path=target/write-behind/completions.log",
+    "records.write-behind.flush-interval=20ms"
+})
+public class RecordWriteBehindTests {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    private final String EMAIL = "example@gmail.com";
+    private final String PASSWORD = "password123";
+    private String TOKEN;
+    private Habit savedHabit;
+
+    @BeforeEach
+    void setUp(){
+        habitRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setEmail(EMAIL);
+        userRepository.save(user);
+
+        Habit habit = new Habit();
+        habit.setName("Play electric guitar");
+        habit.setUser(user);
+        savedHabit = habitRepository.save(habit);
+
+        LoginRequest request = new LoginRequest(EMAIL, PASSWORD);
+        ResponseEntity<UserDTO> response = testRestTemplate.postForEntity("/auth/login", request, UserDTO.class);
+        TOKEN = response.getBody().getToken();
+    }
+
+    private List<Record> recordsOfHabit() throws InterruptedException {
+        //The completion is written by the flusher shortly after the response.
+        for(int attempt = 0; attempt < 100; attempt++){
+            List<Record> records = recordRepository.findAll().stream()
+                .filter(record -> record.getHabit().getId().equals(savedHabit.getId()))
+                .toList();
+            if(!records.isEmpty()) return records;
+            Thread.sleep(50);
+        }
+        return List.of();
+    }
+
+    @Test
+    void saveRecordIsAcceptedAndWrittenLater() throws InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(TOKEN);
+
+        ResponseEntity<RecordDTO> response = testRestTemplate.exchange(
+            "/records/" + savedHabit.getId() + "?date=" + LocalDate.now().minusDays(1),
+            HttpMethod.POST,
+            new HttpEntity<>(headers),
+            RecordDTO.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody().getHabitId()).isEqualTo(savedHabit.getId());
+        assertThat(response.getBody().getDate()).isEqualTo(LocalDate.now().minusDays(1));
+
+        List<Record> records = recordsOfHabit();
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getDate()).isEqualTo(LocalDate.now().minusDays(1));
+        assertThat(records.get(0).getCompleted()).isTrue();
+    }
+
+    @Test
+    void saveRecordOfAnotherUsersHabitIsRejectedBeforeBeingQueued(){
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(TOKEN);
+
+        ResponseEntity<String> response = testRestTemplate.exchange(
+            "/records/" + (savedHabit.getId() + 1000),
+            HttpMethod.POST,
+            new HttpEntity<>(headers),
+            String.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
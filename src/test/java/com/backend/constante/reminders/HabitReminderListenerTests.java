@@ -0,0 +1,63 @@
+package com.backend.constante.reminders;
+
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.constante.model.Habit;
+
+@ExtendWith(MockitoExtension.class)
+public class HabitReminderListenerTests {
+    @Mock
+    private ObjectProvider<ReminderScheduler> reminderSchedulerProvider;
+
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
+    private HabitReminderListener listener;
+    private Habit habit;
+
+    @BeforeEach
+    void setUp(){
+        lenient().when(reminderSchedulerProvider.getObject()).thenReturn(reminderScheduler);
+        listener = new HabitReminderListener(reminderSchedulerProvider);
+        habit = new Habit();
+        habit.setId(1L);
+        habit.setReminderTime(LocalTime.of(8, 0));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown(){
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void IShouldScheduleTheReminderOnlyOnceTheTransactionCommits(){
+        listener.schedule(habit);
+        verifyNoInteractions(reminderScheduler);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(reminderScheduler).schedule(1L, LocalTime.of(8, 0));
+    }
+
+    @Test
+    void IShouldNotCancelTheReminderWhenTheTransactionRollsBack(){
+        listener.cancel(habit);
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verifyNoInteractions(reminderScheduler);
+    }
+}
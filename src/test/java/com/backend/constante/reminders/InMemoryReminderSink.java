@@ -0,0 +1,27 @@
+package com.backend.constante.reminders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the delivered reminders so tests can assert on them.
+ */
+@Component
+public class InMemoryReminderSink implements ReminderSink {
+    private final List<Reminder> delivered = new ArrayList<>();
+
+    @Override
+    public synchronized void deliver(Reminder reminder){
+        delivered.add(reminder);
+    }
+
+    public synchronized List<Reminder> delivered(){
+        return List.copyOf(delivered);
+    }
+
+    public synchronized void clear(){
+        delivered.clear();
+    }
+}
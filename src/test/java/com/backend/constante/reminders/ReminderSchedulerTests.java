@@ -0,0 +1,108 @@
+package com.backend.constante.reminders;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import com.backend.constante.repositories.HabitRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderSchedulerTests {
+    @Mock
+    private HabitRepository habitRepository;
+
+    private final InMemoryReminderSink sink = new InMemoryReminderSink();
+    private final LocalDate today = LocalDate.of(2025, 3, 5);
+    private final Clock clock = Clock.fixed(Instant.parse("2025-03-05T07:00:00Z"), ZoneOffset.UTC);
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp(){
+        ReminderSink failing = reminder -> { throw new IllegalStateException("Channel down"); };
+        scheduler = new ReminderScheduler(habitRepository, List.of(failing, sink), clock, 2);
+    }
+
+    @Test
+    void loadReadsTheHabitsInKeysetPages(){
+        when(habitRepository.findReminderSlotsAfter(0L, Limit.of(2)))
+            .thenReturn(List.of(new ReminderSlot(1L, LocalTime.of(8, 0)), new ReminderSlot(4L, LocalTime.of(9, 0))));
+        when(habitRepository.findReminderSlotsAfter(4L, Limit.of(2)))
+            .thenReturn(List.of(new ReminderSlot(7L, LocalTime.of(10, 0))));
+
+        scheduler.load();
+
+        assertThat(scheduler.size()).isEqualTo(3);
+    }
+
+    @Test
+    void tickDeliversOnlyTheHabitsDueToEverySink(){
+        scheduler.schedule(1L, LocalTime.of(7, 30));
+        scheduler.schedule(2L, LocalTime.of(7, 45));
+        when(habitRepository.findDueReminders(List.of(1L), today))
+            .thenReturn(List.of(new Reminder(1L, 1L, "Reading", LocalTime.of(7, 30))));
+        when(habitRepository.claimReminder(1L, today)).thenReturn(1);
+
+        List<Reminder> delivered = scheduler.tick(LocalDateTime.of(today, LocalTime.of(7, 30)));
+
+        assertThat(delivered).extracting(Reminder::habitId).containsExactly(1L);
+        assertThat(sink.delivered()).isEqualTo(delivered);
+        verify(habitRepository).deleteReminderClaimsBefore(today.minusDays(1));
+    }
+
+    @Test
+    void tickSkipsAReminderAlreadyClaimedByAnotherInstance(){
+        scheduler.schedule(1L, LocalTime.of(7, 30));
+        when(habitRepository.findDueReminders(List.of(1L), today))
+            .thenReturn(List.of(new Reminder(1L, 1L, "Reading", LocalTime.of(7, 30))));
+        when(habitRepository.claimReminder(1L, today)).thenReturn(0);
+
+        assertThat(scheduler.tick(LocalDateTime.of(today, LocalTime.of(7, 30)))).isEmpty();
+        assertThat(sink.delivered()).isEmpty();
+    }
+
+    @Test
+    void tickSkipsTheDatabaseWhenNothingIsDue(){
+        scheduler.schedule(1L, LocalTime.of(9, 0));
+
+        assertThat(scheduler.tick(LocalDateTime.of(today, LocalTime.of(7, 1)))).isEmpty();
+        verify(habitRepository, never()).findDueReminders(any(), any());
+    }
+
+    @Test
+    void tickIgnoresAReminderWhoseTimeChangedInTheDatabase(){
+        scheduler.schedule(1L, LocalTime.of(7, 5));
+        when(habitRepository.findDueReminders(eq(List.of(1L)), eq(today)))
+            .thenReturn(List.of(new Reminder(1L, 1L, "Reading", LocalTime.of(18, 0))));
+
+        assertThat(scheduler.tick(LocalDateTime.of(today, LocalTime.of(7, 5)))).isEmpty();
+        assertThat(sink.delivered()).isEmpty();
+    }
+
+    @Test
+    void cancelledHabitsAreNotQueried(){
+        scheduler.schedule(1L, LocalTime.of(7, 5));
+        scheduler.schedule(2L, LocalTime.of(7, 5));
+        scheduler.cancel(1L);
+        scheduler.schedule(2L, null);
+
+        assertThat(scheduler.tick(LocalDateTime.of(today, LocalTime.of(7, 10)))).isEmpty();
+        assertThat(scheduler.size()).isZero();
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.constante.reminders;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTests {
+
+    @Test
+    void entriesFireInTheirMinuteOnly(){
+        TimingWheel wheel = new TimingWheel(8 * 60);
+        wheel.schedule(1L, 8 * 60 + 30);
+        wheel.schedule(2L, 9 * 60 + 15);
+
+        assertThat(wheel.advanceTo(8 * 60 + 29)).isEmpty();
+        assertThat(wheel.advanceTo(8 * 60 + 30)).containsExactly(1L);
+        assertThat(wheel.advanceTo(9 * 60 + 14)).isEmpty();
+        assertThat(wheel.advanceTo(9 * 60 + 15)).containsExactly(2L);
+    }
+
+    @Test
+    void advancingSeveralMinutesReturnsEveryEntryPassed(){
+        TimingWheel wheel = new TimingWheel(0);
+        wheel.schedule(1L, 10);
+        wheel.schedule(2L, 70);
+        wheel.schedule(3L, 200);
+
+        assertThat(wheel.advanceTo(120)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void entriesRepeatTheNextDay(){
+        TimingWheel wheel = new TimingWheel(23 * 60 + 50);
+        wheel.schedule(1L, 23 * 60 + 55);
+        wheel.schedule(2L, 5);
+
+        assertThat(wheel.advanceTo(10)).containsExactly(1L, 2L);
+        assertThat(wheel.advanceTo(23 * 60 + 55)).containsExactly(1L);
+        assertThat(wheel.advanceTo(5)).containsExactly(2L);
+    }
+
+    @Test
+    void anEntryEarlierInTheCurrentHourWaitsUntilTomorrow(){
+        TimingWheel wheel = new TimingWheel(8 * 60 + 30);
+        wheel.schedule(1L, 8 * 60 + 10);
+
+        List<Long> today = wheel.advanceTo(23 * 60 + 59);
+        assertThat(today).isEmpty();
+        assertThat(wheel.advanceTo(8 * 60 + 10)).containsExactly(1L);
+    }
+
+    @Test
+    void rescheduleAndCancelReplaceThePreviousEntry(){
+        TimingWheel wheel = new TimingWheel(0);
+        wheel.schedule(1L, 30);
+        wheel.schedule(1L, 90);
+        wheel.schedule(2L, 90);
+        wheel.cancel(2L);
+
+        assertThat(wheel.advanceTo(60)).isEmpty();
+        assertThat(wheel.advanceTo(90)).containsExactly(1L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,201 @@
+package com.backend.constante.repositories;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL generated for every repository query and fails if any of them
+ * reads a whole table, so a query change or a dropped index in the migrations can't silently
+ * turn an index lookup into a full scan.
+ */
+@SpringBootTest
+public class QueryPlanTests {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private HabitStreakRepository habitStreakRepository;
+
+    @Autowired
+    private DailySummaryRepository dailySummaryRepository;
+
+    @Autowired
+    private HabitYearBitmapRepository habitYearBitmapRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    private final LocalDate today = LocalDate.now();
+
+    //UserRepository.findByUsername is left out: the application doesn't use it and username has no index.
+    @Test
+    void userQueriesUseIndexes(){
+        assertNoFullScan(() -> userRepository.findByEmail("example@gmail.com"));
+        assertNoFullScan(() -> userRepository.existsByEmail("example@gmail.com"));
+        assertNoFullScan(() -> userRepository.findIdByEmail("example@gmail.com"));
+        assertNoFullScan(() -> userRepository.findTokenVersionById(1L));
+        assertNoFullScan(() -> userRepository.findHabitsVersionById(1L));
+    }
+
+    @Test
+    void habitQueriesUseIndexes(){
+        assertNoFullScan(() -> habitRepository.findByUserId(1L));
+        assertNoFullScan(() -> habitRepository.findDTOsByUserId(1L));
+        assertNoFullScan(() -> habitRepository.findIdsByUserId(1L));
+        assertNoFullScan(() -> habitRepository.findTodayDTOsByUserId(1L, today, today.minusDays(6), today));
+        assertNoFullScan(() -> habitRepository.findByIdAndUserId(1L, 1L));
+        assertNoFullScan(() -> habitRepository.existsByIdAndUserId(1L, 1L));
+        assertNoFullScan(() -> habitRepository.findVersionByIdAndUserId(1L, 1L));
+        assertNoFullScan(() -> habitRepository.findWithLockByIdAndUserId(1L, 1L));
+        assertNoFullScan(() -> habitRepository.findWithLockByIdInAndUserId(Set.of(1L, 2L), 1L));
+        assertNoFullScan(() -> habitRepository.findReminderSlotsAfter(1L, Limit.of(1000)));
+        assertNoFullScan(() -> habitRepository.findDueReminders(Set.of(1L, 2L), today));
+    }
+
+    @Test
+    void recordQueriesUseIndexes(){
+        PageRequest page = PageRequest.of(3, 10, Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")));
+
+        assertNoFullScan(() -> recordRepository.findByHabitIdAndUserId(1L, 1L, page));
+        assertNoFullScan(() -> recordRepository.findDTOsByHabitIdAndUserId(1L, 1L, page));
+        assertNoFullScan(() -> recordRepository.findByHabitIdAndUserIdOrderByDateDescIdDesc(1L, 1L, Limit.of(11)));
+        assertNoFullScan(() -> recordRepository.findPageAfter(1L, 1L, today, 1L, Limit.of(11)));
+        assertNoFullScan(() -> recordRepository.findByDateAndUserId(today, 1L));
+        assertNoFullScan(() -> recordRepository.findDTOsByDateAndUserId(today, 1L));
+        assertNoFullScan(() -> recordRepository.findCompletedDatesByHabitId(1L));
+        assertNoFullScan(() -> recordRepository.findCompletedDatesByHabitIdBetween(1L, today.minusYears(1), today));
+        assertNoFullScan(() -> recordRepository.findCompletedDTOsByHabitIdInAndUserIdAndDateIn(List.of(1L, 2L), 1L, List.of(today)));
+    }
+
+    @Test
+    void dailySummaryQueriesUseIndexes(){
+        assertNoFullScan(() -> dailySummaryRepository.findByUserIdAndDateBetweenOrderByDate(1L, today.minusDays(30), today));
+        assertNoFullScan(() -> dailySummaryRepository.addDue(1L, today, 1));
+        assertNoFullScan(() -> dailySummaryRepository.removeCompletionsOfHabit(1L, 1L));
+        assertNoFullScan(() -> userRepository.findIdsAfter(0L, Limit.of(500)));
+    }
+
+    @Test
+    void statsQueriesUseIndexes(){
+        LocalDate from7 = today.minusDays(6), from30 = today.minusDays(29), from90 = today.minusDays(89), from365 = today.minusDays(364);
+
+        assertNoFullScan(() -> recordRepository.countCompletionWindowsByHabit(1L, 1L, from7, from30, from90, from365, today));
+        assertNoFullScan(() -> recordRepository.countCompletionWindowsByUser(1L, from7, from30, from90, from365, today));
+        assertNoFullScan(() -> recordRepository.countCompletionsByWeekdayOfHabit(1L, 1L));
+        assertNoFullScan(() -> recordRepository.countCompletionsByWeekdayOfUser(1L));
+        assertNoFullScan(() -> recordRepository.findBestMonthsOfHabit(1L, 1L, Limit.of(1)));
+        assertNoFullScan(() -> recordRepository.findBestMonthsOfUser(1L, Limit.of(1)));
+    }
+
+    @Test
+    void streakAndHeatmapQueriesUseIndexes(){
+        assertNoFullScan(() -> habitStreakRepository.findById(1L));
+        assertNoFullScan(() -> habitStreakRepository.findWithLockByHabitId(1L));
+        assertNoFullScan(() -> habitYearBitmapRepository.findByHabitIdAndYear(1L, today.getYear()));
+        assertNoFullScan(() -> habitYearBitmapRepository.findWithLockByHabitIdAndYear(1L, today.getYear()));
+        assertNoFullScan(() -> habitYearBitmapRepository.findByUserIdAndYear(1L, today.getYear()));
+        assertNoFullScan(() -> habitYearBitmapRepository.deleteByHabitId(1L));
+    }
+
+    @Test
+    void revokedTokenQueriesUseIndexes(){
+        Instant now = Instant.now();
+
+        assertNoFullScan(() -> revokedTokenRepository.existsById("jti"));
+        assertNoFullScan(() -> revokedTokenRepository.findActiveJtisAfter("", now, Limit.of(10000)));
+        assertNoFullScan(() -> revokedTokenRepository.deleteExpired(now));
+    }
+
+    private void assertNoFullScan(Runnable query){
+        sqlCapture.clear();
+        transactionTemplate.executeWithoutResult(status -> query.run());
+
+        assertThat(sqlCapture.statements()).isNotEmpty();
+        for(String sql : sqlCapture.statements()){
+            assertThat(explain(sql)).as(sql).doesNotContain("tableScan");
+        }
+    }
+
+    private String explain(String sql){
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql);
+             ResultSet plan = statement.executeQuery()) {
+            StringBuilder lines = new StringBuilder();
+            while(plan.next()){
+                lines.append(plan.getString(1)).append('\n');
+            }
+            return lines.toString();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not explain: " + sql, ex);
+        }
+    }
+
+    static class SqlCapture implements StatementInspector {
+        private final List<String> statements = new ArrayList<>();
+
+        @Override
+        public synchronized String inspect(String sql){
+            statements.add(sql);
+            return sql;
+        }
+
+        synchronized List<String> statements(){
+            return List.copyOf(statements);
+        }
+
+        synchronized void clear(){
+            statements.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfiguration {
+        @Bean
+        SqlCapture sqlCapture(){
+            return new SqlCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureCustomizer(SqlCapture sqlCapture){
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlCapture);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.backend.constante.repositories;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs on H2 in its own mode, like {@link RevokedTokenInsertRepositoryTests}.
+ */
+@SpringBootTest(properties="spring.datasource.url=jdbc:h2:mem:${random.uuid}")
+public class ReminderClaimRepositoryTests {
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Test
+    void claimReminderClaimsAHabitOncePerDay(){
+        LocalDate today = LocalDate.now();
+
+        assertThat(habitRepository.claimReminder(1L, today)).isEqualTo(1);
+        assertThat(habitRepository.claimReminder(1L, today)).isEqualTo(0);
+        assertThat(habitRepository.claimReminder(1L, today.plusDays(1))).isEqualTo(1);
+        assertThat(habitRepository.claimReminder(2L, today)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.backend.constante.repositories;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs on H2 in its own mode, like the application without a datasource URL, where {@code ON CONFLICT} doesn't parse.
+ */
+@SpringBootTest(properties="spring.datasource.url=jdbc:h2:mem:${random.uuid}")
+public class RevokedTokenInsertRepositoryTests {
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    void insertIfAbsentRevokesATokenOnlyOnce(){
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        assertThat(revokedTokenRepository.insertIfAbsent("jti-1", expiresAt)).isEqualTo(1);
+        assertThat(revokedTokenRepository.insertIfAbsent("jti-1", expiresAt)).isEqualTo(0);
+        assertThat(revokedTokenRepository.existsById("jti-1")).isTrue();
+    }
+}
@@ -0,0 +1,49 @@
+package com.backend.constante.security;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.backend.constante.config.JwtUtil;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtVerificationCacheTests {
+    @Spy
+    private JwtUtil jwtUtil;
+
+    private JwtVerificationCache verificationCache;
+    private String token;
+
+    @BeforeEach
+    void setUp(){
+        verificationCache = new JwtVerificationCache(jwtUtil, 100);
+        token = jwtUtil.generateToken(1L, "example@gmail.com", 0);
+    }
+
+    @Test
+    void IShouldVerifyATokenOnlyOnce(){
+        Optional<VerifiedToken> first = verificationCache.verify(token);
+        Optional<VerifiedToken> second = verificationCache.verify(token);
+
+        assertTrue(first.isPresent());
+        assertEquals("example@gmail.com", second.get().email());
+        verify(jwtUtil, times(1)).verifyToken(token);
+    }
+
+    @Test
+    void IShouldRejectATamperedToken(){
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        Optional<VerifiedToken> result = verificationCache.verify(tampered);
+
+        assertTrue(result.isEmpty());
+    }
+}
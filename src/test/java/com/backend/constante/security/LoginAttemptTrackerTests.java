@@ -0,0 +1,41 @@
+package com.backend.constante.security;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.backend.constante.exception.TooManyRequestsException;
+
+public class LoginAttemptTrackerTests {
+    private LoginAttemptTracker loginAttempts;
+
+    @BeforeEach
+    void setUp(){
+        loginAttempts = new LoginAttemptTracker(3, Duration.ofMinutes(15), 100);
+    }
+
+    @Test
+    void IShouldLockAnAccountOutAfterTheLimit(){
+        loginAttempts.recordFailure("example@gmail.com");
+        loginAttempts.recordFailure("example@gmail.com");
+        assertDoesNotThrow(() -> loginAttempts.checkAllowed("example@gmail.com"));
+
+        loginAttempts.recordFailure("Example@Gmail.com ");
+
+        assertThrows(TooManyRequestsException.class, () -> loginAttempts.checkAllowed("example@gmail.com"));
+        assertDoesNotThrow(() -> loginAttempts.checkAllowed("other@gmail.com"));
+    }
+
+    @Test
+    void IShouldClearTheFailuresAfterASuccessfulLogin(){
+        loginAttempts.recordFailure("example@gmail.com");
+        loginAttempts.recordFailure("example@gmail.com");
+        loginAttempts.reset("example@gmail.com");
+        loginAttempts.recordFailure("example@gmail.com");
+
+        assertDoesNotThrow(() -> loginAttempts.checkAllowed("example@gmail.com"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.backend.constante.security;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.backend.constante.exception.ServiceUnavailableException;
+
+public class PasswordHasherTests {
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown(){
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void IShouldMatchAndDetectHashesOfALowerCost(){
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(5), 1, 1, Duration.ofSeconds(5));
+        String oldHash = new BCryptPasswordEncoder(4).encode("password");
+
+        assertTrue(passwordHasher.matches("password", oldHash));
+        assertFalse(passwordHasher.matches("wrong", oldHash));
+        assertTrue(passwordHasher.needsRehash(oldHash));
+        assertFalse(passwordHasher.needsRehash(passwordHasher.encode("password")));
+        assertFalse(passwordHasher.matchesUnknownUser("password"));
+    }
+
+    @Test
+    void IShouldFailFastWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword){
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        passwordHasher = new PasswordHasher(blocking, 1, 1, Duration.ofSeconds(5));
+
+        //One check running and one queued fill the pool.
+        Thread running = new Thread(() -> passwordHasher.matches("a", "hash"));
+        Thread queued = new Thread(() -> passwordHasher.matches("b", "hash"));
+        running.start();
+        started.await();
+        queued.start();
+        while(queued.getState() != Thread.State.TIMED_WAITING) Thread.sleep(5);
+
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class, () -> passwordHasher.matches("c", "hash"));
+
+        assertEquals("Too many logins in progress, try again later.", ex.getMessage());
+        release.countDown();
+        running.join();
+        queued.join();
+    }
+}
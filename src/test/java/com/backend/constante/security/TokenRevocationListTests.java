@@ -0,0 +1,125 @@
+package com.backend.constante.security;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.constante.repositories.RevokedTokenRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTests {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final Instant now = Instant.parse("2025-03-05T07:00:00Z");
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp(){
+        revocationList = new TokenRevocationList(revokedTokenRepository, Clock.fixed(now, ZoneOffset.UTC), 0.000001, 2);
+    }
+
+    @Test
+    void IShouldSeeARevocationImmediately(){
+        when(revokedTokenRepository.insertIfAbsent("jti-1", now.plusSeconds(60))).thenReturn(1);
+
+        revocationList.revoke("jti-1", now.plusSeconds(60));
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+    }
+
+    @Test
+    void IShouldNotStoreATokenThatAlreadyExpired(){
+        revocationList.revoke("jti-1", now);
+
+        assertFalse(revocationList.isRevoked("jti-1"));
+        verify(revokedTokenRepository, never()).insertIfAbsent(any(), any());
+    }
+
+    @Test
+    void IShouldRevokeATokenOnlyOnce(){
+        when(revokedTokenRepository.insertIfAbsent("jti-1", now.plusSeconds(60))).thenReturn(1, 0);
+
+        assertTrue(revocationList.revokeOnce("jti-1", now.plusSeconds(60)));
+        assertFalse(revocationList.revokeOnce("jti-1", now.plusSeconds(60)));
+    }
+
+    @Test
+    void IShouldOnlySeeARevocationOnceItsTransactionCommits(){
+        when(revokedTokenRepository.insertIfAbsent("jti-1", now.plusSeconds(60))).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            revocationList.revoke("jti-1", now.plusSeconds(60));
+            assertFalse(revocationList.isRevoked("jti-1"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(revocationList.isRevoked("jti-1"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void IShouldKeepTheRevocationsMadeWhileRebuilding(){
+        when(revokedTokenRepository.insertIfAbsent(any(), any())).thenReturn(1);
+        revocationList.revoke("before", now.plusSeconds(60));
+        //Committed after the rebuild read the table, so only the exact set holds it.
+        when(revokedTokenRepository.findActiveJtisAfter("", now, Limit.of(2))).thenAnswer(invocation -> {
+            revocationList.revoke("during", now.plusSeconds(60));
+            return List.of("before");
+        });
+
+        revocationList.rebuild();
+
+        assertTrue(revocationList.isRevoked("before"));
+        assertTrue(revocationList.isRevoked("during"));
+    }
+
+    @Test
+    void IShouldLoadEveryStoredRevocationWhenRebuilding(){
+        when(revokedTokenRepository.findActiveJtisAfter("", now, Limit.of(2))).thenReturn(List.of("a", "b"));
+        when(revokedTokenRepository.findActiveJtisAfter("b", now, Limit.of(2))).thenReturn(List.of("c"));
+
+        revocationList.rebuild();
+
+        assertTrue(revocationList.isRevoked("a"));
+        assertTrue(revocationList.isRevoked("c"));
+        verify(revokedTokenRepository).deleteExpired(now);
+    }
+
+    @Test
+    void IShouldRarelyReportAnUnrevokedTokenAsRevoked(){
+        //Sized for 0.1%: the filter holds the 10000 ids with room for as many more.
+        List<String> revoked = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        when(revokedTokenRepository.findActiveJtisAfter(eq(""), eq(now), any())).thenReturn(revoked);
+
+        TokenRevocationList list = new TokenRevocationList(revokedTokenRepository, Clock.fixed(now, ZoneOffset.UTC), 0.001, 100_000);
+        list.rebuild();
+
+        long falsePositives = IntStream.range(0, 100_000)
+            .filter(i -> list.isRevoked(UUID.randomUUID().toString()))
+            .count();
+        assertTrue(revoked.stream().allMatch(list::isRevoked));
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
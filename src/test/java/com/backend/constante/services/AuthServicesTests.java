@@ -1,5 +1,6 @@
 package com.backend.constante.services;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -9,25 +10,32 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 
 import com.backend.constante.config.JwtUtil;
 import com.backend.constante.dto.LoginRequest;
+import com.backend.constante.dto.TokenDTO;
 import com.backend.constante.dto.UserDTO;
+import com.backend.constante.exception.TooManyRequestsException;
+import com.backend.constante.mappers.UserMapper;
 import com.backend.constante.model.User;
 import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.security.LoginAttemptTracker;
+import com.backend.constante.security.PasswordHasher;
+import com.backend.constante.security.TokenRevocationList;
+import com.backend.constante.security.TokenType;
+import com.backend.constante.security.TokenVersionRegistry;
+import com.backend.constante.security.VerifiedToken;
 
 @ExtendWith(MockitoExtension.class)
 public class AuthServicesTests {
@@ -38,13 +46,22 @@ public class AuthServicesTests {
     private UserRepository userRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private UserMapper userMapper;
 
     @Mock
     private JwtUtil jwtUtil;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private LoginAttemptTracker loginAttempts;
+
+    @Mock
+    private TokenRevocationList revocationList;
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
 
     private LoginRequest loginRequest;
     private User user;
@@ -70,12 +87,10 @@ public class AuthServicesTests {
         expectedUser.setEmail("example@gmail.com");
         expectedUser.setToken(token);
 
-        Authentication authentication = mock(Authentication.class);
-
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(user));
-        when(jwtUtil.generateToken(user.getEmail())).thenReturn(token);
-        when(modelMapper.map(user, UserDTO.class)).thenReturn(expectedUser);
+        when(passwordHasher.matches("password", "encodedPassword")).thenReturn(true);
+        when(jwtUtil.generateToken(user.getId(), user.getEmail(), user.getTokenVersion())).thenReturn(token);
+        when(userMapper.toDTO(user)).thenReturn(expectedUser);
 
         UserDTO result = authService.loginUser(loginRequest);
 
@@ -83,20 +98,112 @@ public class AuthServicesTests {
         assertEquals(expectedUser.getUsername(), result.getUsername());
         assertEquals(expectedUser.getEmail(), result.getEmail());
         assertEquals(expectedUser.getToken(), result.getToken());
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository).findByEmail(loginRequest.getEmail());
-        verify(jwtUtil).generateToken(user.getEmail());
-        verify(modelMapper).map(user, UserDTO.class);
+        verify(userRepository, times(1)).findByEmail(loginRequest.getEmail());
+        verify(loginAttempts).reset(loginRequest.getEmail());
+        verify(userRepository, never()).updatePassword(any(), anyString());
+        verify(jwtUtil).generateToken(user.getId(), user.getEmail(), user.getTokenVersion());
+        verify(userMapper).toDTO(user);
     }
 
     @Test
     void IShouldLoginAUserButTheCredentialsAreInvalid(){
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenThrow(new BadCredentialsException("Invalid credentials"));             
+        when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password", "encodedPassword")).thenReturn(false);
 
         BadCredentialsException ex = assertThrows(BadCredentialsException.class, () -> authService.loginUser(loginRequest));
 
         assertEquals("Invalid credentials", ex.getMessage());
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(loginAttempts).recordFailure(loginRequest.getEmail());
+        verify(jwtUtil, never()).generateToken(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void IShouldLoginAUserButTheEmailIsUnknown(){
+        when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> authService.loginUser(loginRequest));
+
+        verify(passwordHasher).matchesUnknownUser("password");
+        verify(loginAttempts).recordFailure(loginRequest.getEmail());
+    }
+
+    @Test
+    void IShouldNotCheckThePasswordOfALockedOutAccount(){
+        doThrow(new TooManyRequestsException("Too many failed login attempts, try again later."))
+            .when(loginAttempts).checkAllowed(loginRequest.getEmail());
+
+        assertThrows(TooManyRequestsException.class, () -> authService.loginUser(loginRequest));
+
         verify(userRepository, never()).findByEmail(anyString());
+        verify(passwordHasher, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void IShouldRehashAPasswordHashedWithAnOldCost(){
+        when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password", "encodedPassword")).thenReturn(true);
+        when(passwordHasher.needsRehash("encodedPassword")).thenReturn(true);
+        when(passwordHasher.encode("password")).thenReturn("strongerHash");
+        when(userMapper.toDTO(user)).thenReturn(new UserDTO());
+
+        authService.loginUser(loginRequest);
+
+        verify(userRepository).updatePassword(1L, "strongerHash");
+    }
+
+    @Test
+    void IShouldRefreshAndRevokeTheUsedRefreshToken(){
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        VerifiedToken refresh = new VerifiedToken(1L, "example@gmail.com", 0, expiresAt, "jti-1", TokenType.refresh);
+        when(jwtUtil.verifyToken("refresh.token")).thenReturn(refresh);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        when(jwtUtil.generateToken(1L, "example@gmail.com", 0)).thenReturn("new.access");
+        when(jwtUtil.generateRefreshToken(1L, "example@gmail.com", 0)).thenReturn("new.refresh");
+        when(revocationList.revokeOnce("jti-1", expiresAt)).thenReturn(true);
+
+        TokenDTO result = authService.refresh("refresh.token");
+
+        assertEquals("new.access", result.getToken());
+        assertEquals("new.refresh", result.getRefreshToken());
+        verify(revocationList).revokeOnce("jti-1", expiresAt);
+    }
+
+    @Test
+    void IShouldNotRefreshWithARefreshTokenAlreadyUsed(){
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        VerifiedToken refresh = new VerifiedToken(1L, "example@gmail.com", 0, expiresAt, "jti-1", TokenType.refresh);
+        when(jwtUtil.verifyToken("refresh.token")).thenReturn(refresh);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        when(revocationList.revokeOnce("jti-1", expiresAt)).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh("refresh.token"));
+        verify(jwtUtil, never()).generateToken(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void IShouldNotRefreshWithAnAccessToken(){
+        VerifiedToken access = new VerifiedToken(1L, "example@gmail.com", 0, Instant.now().plusSeconds(60), "jti-1", TokenType.access);
+        when(jwtUtil.verifyToken("access.token")).thenReturn(access);
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh("access.token"));
+        verify(jwtUtil, never()).generateToken(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void IShouldNotRefreshAfterSigningOutOfEveryDevice(){
+        VerifiedToken refresh = new VerifiedToken(1L, "example@gmail.com", 0, Instant.now().plusSeconds(3600), "jti-1", TokenType.refresh);
+        when(jwtUtil.verifyToken("refresh.token")).thenReturn(refresh);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1));
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh("refresh.token"));
+        verify(revocationList, never()).revokeOnce(anyString(), any());
+    }
+
+    @Test
+    void IShouldLogOutEveryDeviceByBumpingTheTokenVersion(){
+        authService.logoutAll(1L);
+
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(tokenVersionRegistry).evict(1L);
     }
 }
@@ -0,0 +1,144 @@
+package com.backend.constante.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.backend.constante.dto.DailySummaryDTO;
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.exception.BusinessRuleException;
+import com.backend.constante.model.DailySummary;
+import com.backend.constante.repositories.DailySummaryRepository;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.RecordRepository;
+import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.Frequency;
+
+@ExtendWith(MockitoExtension.class)
+public class DailySummaryServiceTests {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @InjectMocks
+    private DailySummaryService dailySummaryService;
+
+    @Mock
+    private DailySummaryRepository dailySummaryRepository;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    @Test
+    void registerCompletionsSkipsDaysWithoutChanges(){
+        dailySummaryService.registerCompletions(1L, Map.of(DAY, 0, DAY.plusDays(1), -1));
+
+        verify(dailySummaryRepository).addCompletions(1L, Map.of(DAY.plusDays(1), -1));
+    }
+
+    @Test
+    void registerCompletionsDoesNothingWithoutChanges(){
+        dailySummaryService.registerCompletions(1L, Map.of(DAY, 0));
+
+        verify(dailySummaryRepository, never()).addCompletions(any(), any());
+    }
+
+    @Test
+    void findSummariesFillsTheDaysWithoutRowsFromTheHabits(){
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(dailySummaryRepository.findByUserIdAndDateBetweenOrderByDate(1L, DAY, DAY.plusDays(2)))
+            .thenReturn(List.of(new DailySummary(1L, DAY.plusDays(1), 2, 1)));
+        when(habitRepository.findDTOsByUserId(1L)).thenReturn(List.of(
+            new HabitDTO(1L, "Read", null, null, Frequency.daily, null),
+            new HabitDTO(2L, "Run", null, DAY.plusDays(2), Frequency.daily, null)));
+
+        List<DailySummaryDTO> summaries = dailySummaryService.findSummaries("lucas@gmail.com", DAY, DAY.plusDays(2));
+
+        assertEquals(List.of(
+            new DailySummaryDTO(DAY, 1, 0),
+            new DailySummaryDTO(DAY.plusDays(1), 2, 1),
+            new DailySummaryDTO(DAY.plusDays(2), 2, 0)), summaries);
+    }
+
+    @Test
+    void findSummariesDoesNotReadHabitsWhenEveryDayHasARow(){
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(dailySummaryRepository.findByUserIdAndDateBetweenOrderByDate(1L, DAY, DAY))
+            .thenReturn(List.of(new DailySummary(1L, DAY, 3, 2)));
+
+        List<DailySummaryDTO> summaries = dailySummaryService.findSummaries("lucas@gmail.com", DAY, DAY);
+
+        assertEquals(List.of(new DailySummaryDTO(DAY, 3, 2)), summaries);
+        verify(habitRepository, never()).findDTOsByUserId(any());
+    }
+
+    @Test
+    void findSummariesDoesNotCountAWeeklyHabitAlreadyCompletedThatWeek(){
+        //DAY is a Monday: the weekly habit was completed on Wednesday, and not during the next week.
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(dailySummaryRepository.findByUserIdAndDateBetweenOrderByDate(1L, DAY, DAY.plusDays(7)))
+            .thenReturn(List.of(new DailySummary(1L, DAY.plusDays(2), 2, 2)));
+        when(habitRepository.findDTOsByUserId(1L)).thenReturn(List.of(
+            new HabitDTO(1L, "Read", null, null, Frequency.daily, null),
+            new HabitDTO(2L, "Clean", null, null, Frequency.weekly, null)));
+        when(recordRepository.findCompletedDTOsOfWeeklyHabitsByUserIdBetween(1L, DAY, DAY.plusDays(13)))
+            .thenReturn(List.of(new RecordDTO(2L, DAY.plusDays(2), true)));
+
+        List<DailySummaryDTO> summaries = dailySummaryService.findSummaries("lucas@gmail.com", DAY, DAY.plusDays(7));
+
+        assertEquals(new DailySummaryDTO(DAY, 1, 0), summaries.get(0));
+        assertEquals(new DailySummaryDTO(DAY.plusDays(2), 2, 2), summaries.get(2));
+        assertEquals(new DailySummaryDTO(DAY.plusDays(6), 1, 0), summaries.get(6));
+        assertEquals(new DailySummaryDTO(DAY.plusDays(7), 2, 0), summaries.get(7));
+    }
+
+    @Test
+    void rebuildLocksTheUserAndItsHabitsFirst(){
+        when(userRepository.findIdWithLockById(1L)).thenReturn(Optional.of(1L));
+        when(dailySummaryRepository.rebuild(1L)).thenReturn(4);
+
+        assertEquals(4, dailySummaryService.rebuild(1L));
+
+        InOrder order = inOrder(userRepository, habitRepository, dailySummaryRepository);
+        order.verify(userRepository).findIdWithLockById(1L);
+        order.verify(habitRepository).findIdsWithLockByUserId(1L);
+        order.verify(dailySummaryRepository).rebuild(1L);
+    }
+
+    @Test
+    void rebuildSkipsADeletedUser(){
+        when(userRepository.findIdWithLockById(1L)).thenReturn(Optional.empty());
+
+        assertEquals(0, dailySummaryService.rebuild(1L));
+        verify(dailySummaryRepository, never()).rebuild(any());
+    }
+
+    @Test
+    void findSummariesRejectsInvalidRanges(){
+        assertThrows(BusinessRuleException.class, () -> dailySummaryService.findSummaries("lucas@gmail.com", DAY, DAY.minusDays(1)));
+        assertThrows(BusinessRuleException.class, () -> dailySummaryService.findSummaries("lucas@gmail.com", DAY, DAY.plusDays(366)));
+    }
+}
@@ -1,5 +1,6 @@
 package com.backend.constante.services;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,7 +13,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
@@ -20,14 +20,17 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.TodayHabitDTO;
+import com.backend.constante.exception.PreconditionFailedException;
 import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.mappers.HabitMapper;
 import com.backend.constante.model.Habit;
 import com.backend.constante.model.User;
 import com.backend.constante.repositories.HabitRepository;
 import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.Frequency;
 
 @ExtendWith(MockitoExtension.class)
 public class HabitServiceTests {
@@ -38,11 +41,23 @@ public class HabitServiceTests {
     private HabitRepository habitRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private HabitMapper habitMapper;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    @Mock
+    private StreakService streakService;
+
+    @Mock
+    private HeatmapService heatmapService;
+
+    @Mock
+    private DailySummaryService dailySummaryService;
+
     private User user;
     private Habit habit;
     private Habit habit2;
@@ -97,115 +112,123 @@ public class HabitServiceTests {
         HabitDTO expectedHabit = new HabitDTO();
         expectedHabit.setName("Play guitar");
 
-        when(modelMapper.map(habitDTO, Habit.class)).thenReturn(habit);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(habitMapper.toEntity(habitDTO)).thenReturn(habit);
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(habitRepository.save(habit)).thenReturn(savedHabit);
-        when(modelMapper.map(savedHabit, HabitDTO.class)).thenReturn(habitDTO);
+        when(habitMapper.toDTO(savedHabit)).thenReturn(habitDTO);
 
         HabitDTO result = habitService.createHabit(habitDTO, email);
 
         assertNotNull(result);
         assertEquals(expectedHabit.getName(), result.getName());
-        verify(userRepository).findByEmail(email);
+        verify(userIdResolver).resolve(email);
         verify(habitRepository).save(any(Habit.class));
+        verify(dailySummaryService).registerHabitCreated(1L, savedHabit.getMadeSince());
     }
     
     @Test
     void IShouldCreateAHabitButUserNotFound(){
 
-        when(modelMapper.map(habitDTO, Habit.class)).thenReturn(habit);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(habitMapper.toEntity(habitDTO)).thenReturn(habit);
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             habitService.createHabit(habitDTO, email);
         });
         
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(modelMapper).map(habitDTO, Habit.class);
+        verify(habitMapper).toEntity(habitDTO);
         verify(habitRepository, never()).save(any());
-        verify(userRepository).findByEmail(email);
+        verify(userIdResolver).resolve(email);
     }
 
     @Test
     void IShouldFindHabitByUser(){
-        List<Habit> habits = List.of(habit, habit2, habit3);
         List<HabitDTO> expectedDTOs = List.of(habitDTO, habitDTO2, habitDTO3);
 
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findByUser(user)).thenReturn(habits);
-        when(modelMapper.map(habit, HabitDTO.class)).thenReturn(habitDTO);
-        when(modelMapper.map(habit2,HabitDTO.class)).thenReturn(habitDTO2);
-        when(modelMapper.map(habit3,HabitDTO.class)).thenReturn(habitDTO3);
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findDTOsByUserId(1L)).thenReturn(expectedDTOs);
 
         List<HabitDTO> result = habitService.findHabitsByUser(email);
         
         assertNotNull(result);
         assertEquals(3, result.size());
         assertEquals(expectedDTOs, result);
-        verify(userRepository).findByEmail(email);
-        verify(habitRepository).findByUser(user);
-        verify(modelMapper, times(3)).map(any(Habit.class), eq(HabitDTO.class));
+        verify(userIdResolver).resolve(email);
+        verify(habitRepository).findDTOsByUserId(1L);
+        verify(habitRepository, never()).findByUserId(any());
+        verify(habitMapper, never()).toDTO(any());
     }
 
     @Test
     void IShouldFindHabitsByUserButUserNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> habitService.findHabitsByUser(email));
 
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(userRepository).findByEmail(email);
-        verify(habitRepository, never()).findByUser(any());
-        verify(modelMapper, never()).map(any(), any());
+        verify(userIdResolver).resolve(email);
+        verify(habitRepository, never()).findDTOsByUserId(any());
     }
 
     @Test
     void IShouldFindHabitsByUserButEmptyList(){
-        List<Habit> noHabits = List.of();
-
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findByUser(user)).thenReturn(noHabits);
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findDTOsByUserId(1L)).thenReturn(List.of());
 
         List<HabitDTO> result = habitService.findHabitsByUser(email);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(userRepository).findByEmail(email);
-        verify(habitRepository).findByUser(user);
-        verify(modelMapper, never()).map(any(), any());
+        verify(userIdResolver).resolve(email);
+        verify(habitRepository).findDTOsByUserId(1L);
+    }
+
+    @Test
+    void IShouldFindTodayHabitsWithTheWeekOfTheDate(){
+        LocalDate wednesday = LocalDate.of(2025, 3, 5);
+        List<TodayHabitDTO> expected = List.of(new TodayHabitDTO(1L, "Play guitar", null, null, Frequency.weekly, null, false, true));
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findTodayDTOsByUserId(1L, wednesday, LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 9))).thenReturn(expected);
+
+        List<TodayHabitDTO> result = habitService.findTodayHabits(email, wednesday);
+
+        assertEquals(expected, result);
     }
 
     @Test
     void IShouldFindHabitById(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findByIdAndUser(1L, user)).thenReturn(Optional.of(habit));
-        when(modelMapper.map(habit, HabitDTO.class)).thenReturn(habitDTO);
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+        when(habitMapper.toDTO(habit)).thenReturn(habitDTO);
 
         HabitDTO result = habitService.findHabitById(1L, email);
 
         assertNotNull(result);
         assertEquals(habit.getName(), result.getName());
-        verify(userRepository).findByEmail(email);
-        verify(habitRepository).findByIdAndUser(1L, user);
-        verify(modelMapper, times(1)).map(any(Habit.class), eq(HabitDTO.class));
+        verify(userIdResolver).resolve(email);
+        verify(habitRepository).findByIdAndUserId(1L, 1L);
+        verify(habitMapper, times(1)).toDTO(any(Habit.class));
     }
 
     @Test
     void IShouldFindHabitByIdButUserNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> habitService.findHabitById(1L, email));
 
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(userRepository).findByEmail(email);
-        verify(habitRepository, never()).findByUser(any());
-        verify(modelMapper, times(0)).map(any(Habit.class), eq(HabitDTO.class));
+        verify(userIdResolver).resolve(email);
+        verify(habitRepository, never()).findByUserId(any());
+        verify(habitMapper, times(0)).toDTO(any(Habit.class));
     }
 
     @Test
     void IShouldUpdateHabit(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
 
 
 
@@ -217,58 +240,127 @@ public class HabitServiceTests {
             savedHabit.getId().equals(1L) &&
             savedHabit.getUser().getId().equals(1L)
         ));
+        verify(streakService, never()).rebuild(any());
+        verify(dailySummaryService, never()).registerScheduleChanged(any(), any());
+    }
+
+    @Test
+    void IShouldUpdateHabitAndRebuildStreaksWhenFrequencyChanges(){
+        HabitDTO weekly = new HabitDTO();
+        weekly.setFrequency(Frequency.weekly);
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+
+        habitService.updateHabit(email, 1L, weekly);
+
+        verify(streakService).rebuild(habit);
+        verify(habitRepository).flush();
+        verify(dailySummaryService).registerScheduleChanged(1L, habit.getMadeSince());
+    }
+
+    @Test
+    void IShouldRecountTheDueDaysWhenTheStartDateChanges(){
+        LocalDate previousStart = LocalDate.of(2025, 1, 10);
+        habit.setMadeSince(previousStart);
+        HabitDTO earlier = new HabitDTO();
+        earlier.setMadeSince(LocalDate.of(2025, 1, 1));
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+
+        habitService.updateHabit(email, 1L, earlier);
+
+        verify(dailySummaryService).registerScheduleChanged(1L, LocalDate.of(2025, 1, 1));
+        verify(streakService).rebuild(habit);
+    }
+
+    @Test
+    void IShouldNotUpdateHabitWhenIfMatchIsStale(){
+        habit.setVersion(3L);
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+
+        PreconditionFailedException ex = assertThrows(PreconditionFailedException.class,
+            () -> habitService.updateHabit(email, 1L, updatedHabit, "\"habit-1-2\""));
+
+        assertEquals("Habit 1 has been modified.", ex.getMessage());
+        verify(habitRepository, never()).save(any());
+        verify(userRepository, never()).incrementHabitsVersion(any());
+    }
+
+    @Test
+    void IShouldUpdateHabitWhenIfMatchIsCurrent(){
+        habit.setVersion(3L);
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+
+        habitService.updateHabit(email, 1L, updatedHabit, "\"habit-1-3\"");
+
+        verify(habitRepository).save(habit);
+        verify(userRepository).incrementHabitsVersion(1L);
+    }
+
+    @Test
+    void IShouldBuildTheHabitsETagFromTheVersionOnly(){
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(userRepository.findHabitsVersionById(1L)).thenReturn(Optional.of(7L));
+
+        assertEquals("\"habits-1-7\"", habitService.findHabitsETag(email));
+        verify(habitRepository, never()).findDTOsByUserId(any());
     }
 
     @Test
     void IShouldUpdateHabitButUserNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> habitService.updateHabit(email, 1L, updatedHabit));
 
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(userRepository).findByEmail(email);
-        verify(habitRepository, never()).findById(1L);
+        verify(userIdResolver).resolve(email);
+        verify(habitRepository, never()).findByIdAndUserId(any(), any());
         verify(habitRepository, never()).save(any());
     }
 
     @Test
     void IShouldUpdateHabitButHabitNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> habitService.updateHabit(email, 1L, habitDTO));
 
         assertEquals("Habit with id: '1' not found.", ex.getMessage());
-        verify(userRepository).findByEmail(email);
-        verify(habitRepository).findById(1L);
+        verify(userIdResolver).resolve(email);
+        verify(habitRepository).findByIdAndUserId(1L, 1L);
         verify(habitRepository, never()).save(any());
     }
 
     @Test
     void IShouldDeleteHabit(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
 
         habitService.deleteHabit(email, 1L);
 
+        verify(dailySummaryService).registerHabitDeleted(1L, 1L);
         verify(habitRepository).delete(habit);
     }
 
     @Test
     void IShouldDeleteHabitButUserNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> habitService.deleteHabit(email, 1L));
 
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(habitRepository, never()).findById(1L);
+        verify(habitRepository, never()).findByIdAndUserId(any(), any());
         verify(habitRepository, never()).delete(any());
     }
 
     @Test
     void IShouldDeleteHabitButHabitNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> habitService.deleteHabit(email, 1L));
 
@@ -0,0 +1,118 @@
+package com.backend.constante.services;
+
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.backend.constante.dto.HeatmapDTO;
+import com.backend.constante.exception.BadRequestException;
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.model.HabitYearBitmap;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.HabitYearBitmapRepository;
+import com.backend.constante.repositories.RecordRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class HeatmapServiceTests {
+    @InjectMocks
+    private HeatmapService heatmapService;
+
+    @Mock
+    private HabitYearBitmapRepository bitmapRepository;
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    @Test
+    void IShouldSetTheBitOfTheDayInTheExistingBitmap(){
+        HabitYearBitmap bitmap = new HabitYearBitmap(1L, 2025, 1L);
+        when(bitmapRepository.findWithLockByHabitIdAndYear(1L, 2025)).thenReturn(Optional.of(bitmap));
+
+        heatmapService.registerCompletion(1L, 1L, LocalDate.of(2025, 1, 10));
+
+        //The 10th of January is day 9 counting from zero: byte 1, bit 1.
+        assertEquals(0b10, bitmap.getBits()[1]);
+        verify(recordRepository, never()).findCompletedDatesByHabitIdBetween(any(), any(), any());
+        verify(bitmapRepository).save(bitmap);
+    }
+
+    @Test
+    void IShouldBackfillTheBitmapFromRecordsWhenItDoesNotExist(){
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        when(bitmapRepository.findWithLockByHabitIdAndYear(1L, 2025)).thenReturn(Optional.empty());
+        when(recordRepository.findCompletedDatesByHabitIdBetween(1L, from, LocalDate.of(2025, 12, 31)))
+            .thenReturn(List.of(from));
+        when(bitmapRepository.save(any(HabitYearBitmap.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        heatmapService.registerCompletion(1L, 1L, LocalDate.of(2025, 1, 2));
+
+        verify(bitmapRepository).save(argThat(bitmap -> bitmap.getBits()[0] == 0b11));
+    }
+
+    @Test
+    void findHeatmapReturnsTheBitsEncodedInBase64(){
+        HabitYearBitmap bitmap = new HabitYearBitmap(1L, 2025, 1L);
+        bitmap.set(LocalDate.of(2025, 12, 31));
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(bitmapRepository.findByHabitIdAndYear(1L, 2025)).thenReturn(Optional.of(bitmap));
+
+        HeatmapDTO result = heatmapService.findHeatmap(1L, "lucas@gmail.com", 2025);
+
+        byte[] bits = Base64.getDecoder().decode(result.getBits());
+        assertEquals(HabitYearBitmap.BYTES, bits.length);
+        //Day 364 counting from zero: byte 45, bit 4.
+        assertEquals(0b10000, bits[45]);
+    }
+
+    @Test
+    void findHeatmapOfAHabitOfAnotherUserThrowsResourceNotFoundException(){
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(2L);
+        when(bitmapRepository.findByHabitIdAndYear(1L, 2025)).thenReturn(Optional.of(new HabitYearBitmap(1L, 2025, 1L)));
+        when(habitRepository.existsByIdAndUserId(1L, 2L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> heatmapService.findHeatmap(1L, "lucas@gmail.com", 2025));
+    }
+
+    @Test
+    void findHeatmapsBuildsTheMissingBitmaps(){
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(bitmapRepository.findByUserIdAndYear(1L, 2025)).thenReturn(List.of(new HabitYearBitmap(1L, 2025, 1L)));
+        when(habitRepository.findIdsByUserId(1L)).thenReturn(List.of(1L, 2L));
+        when(recordRepository.findCompletedDatesByHabitIdBetween(any(), any(), any())).thenReturn(List.of());
+
+        List<HeatmapDTO> result = heatmapService.findHeatmaps("lucas@gmail.com", 2025);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(1).getHabitId());
+        //Reads never insert bitmaps, so they can't race with the first completion of the year.
+        verify(bitmapRepository, never()).save(any());
+    }
+
+    @Test
+    void findHeatmapRejectsYearsOutOfRange(){
+        assertThrows(BadRequestException.class, () -> heatmapService.findHeatmap(1L, "lucas@gmail.com", 999_999_999));
+        assertThrows(BadRequestException.class, () -> heatmapService.findHeatmaps("lucas@gmail.com", HeatmapService.MIN_YEAR - 1));
+        assertThrows(BadRequestException.class, () -> heatmapService.findHeatmaps("lucas@gmail.com", LocalDate.now().getYear() + 1));
+        verify(userIdResolver, never()).resolve(any());
+    }
+}
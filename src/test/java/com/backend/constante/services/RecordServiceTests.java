@@ -2,7 +2,9 @@ package com.backend.constante.services;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -12,27 +14,32 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import com.backend.constante.dto.CompletionDTO;
+import com.backend.constante.dto.CursorPageDTO;
 import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.exception.BusinessRuleException;
 import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.mappers.RecordMapper;
 import com.backend.constante.model.Habit;
 import com.backend.constante.model.Record;
 import com.backend.constante.model.User;
 import com.backend.constante.repositories.HabitRepository;
 import com.backend.constante.repositories.RecordRepository;
-import com.backend.constante.repositories.UserRepository;
+import com.backend.constante.utils.RecordCursor;
 
 @ExtendWith(MockitoExtension.class)
 public class RecordServiceTests {
@@ -43,19 +50,27 @@ public class RecordServiceTests {
     private RecordRepository recordRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private RecordMapper recordMapper;
 
     @Mock
-    private ModelMapper modelMapper;
+    private HabitRepository habitRepository;
 
     @Mock
-    private HabitRepository habitRepository;
+    private UserIdResolver userIdResolver;
+
+    @Mock
+    private StreakService streakService;
+
+    @Mock
+    private HeatmapService heatmapService;
+
+    @Mock
+    private DailySummaryService dailySummaryService;
 
     private User user;
     private Habit habit;
     private Record record;
     private Record record2;
-    private Record savedRecord;
     private RecordDTO recordDTO;
     private RecordDTO recordDTO2;
     private String email;
@@ -85,10 +100,6 @@ public class RecordServiceTests {
         record2.setHabit(habit);
         record2.setCompleted(true);
 
-        savedRecord = new Record();
-        savedRecord.setId(1L);
-        savedRecord.setUser(user);
-        savedRecord.setCompleted(true);
         
         recordDTO = new RecordDTO();
         recordDTO.setCompleted(true);
@@ -101,33 +112,76 @@ public class RecordServiceTests {
     
     @Test
     void IShouldSaveRecord(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
-        when(recordRepository.save(any(Record.class))).thenReturn(savedRecord);
-        when(modelMapper.map(any(Record.class), eq(RecordDTO.class))).thenReturn(recordDTO);
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findWithLockByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+        when(recordRepository.upsert(1L, 1L, LocalDate.now(), true)).thenReturn(true);
 
         RecordDTO result = recordService.saveRecord(email, 1L);
 
         assertNotNull(result);
         assertEquals(result.getHabitId(), 1L);
+        assertEquals(LocalDate.now(), result.getDate());
+        verify(recordRepository).upsert(1L, 1L, LocalDate.now(), true);
+        verify(streakService).registerCompletion(habit, LocalDate.now());
+        verify(heatmapService).registerCompletion(1L, 1L, LocalDate.now());
+        verify(dailySummaryService).registerCompletions(1L, Map.of(LocalDate.now(), 1));
+    }
+
+    @Test
+    void IShouldUndoRecord(){
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findWithLockByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+        when(recordRepository.upsert(1L, 1L, yesterday, false)).thenReturn(true);
+
+        RecordDTO result = recordService.saveRecord(email, 1L, yesterday, false);
+
+        assertEquals(false, result.getCompleted());
+        verify(recordRepository).upsert(1L, 1L, yesterday, false);
+        verify(streakService).rebuild(habit);
+        verify(heatmapService).registerUndo(1L, 1L, yesterday);
+        verify(streakService, never()).registerCompletion(any(), any());
+        verify(dailySummaryService).registerCompletions(1L, Map.of(yesterday, -1));
+    }
+
+    @Test
+    void IShouldNotCountARecordThatWasAlreadyCompleted(){
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findWithLockByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+        when(recordRepository.upsert(1L, 1L, LocalDate.now(), true)).thenReturn(false);
+
+        recordService.saveRecord(email, 1L);
+
+        verify(recordRepository).upsert(1L, 1L, LocalDate.now(), true);
+        verify(dailySummaryService, never()).registerCompletions(any(), any());
+    }
+
+    @Test
+    void IShouldSaveRecordButTheDateIsInTheFuture(){
+        assertThrows(BusinessRuleException.class, () -> {
+            recordService.saveRecord(email, 1L, LocalDate.now().plusDays(1), true);
+        });
+
+        verify(recordRepository, never()).upsert(any(), any(), any(), anyBoolean());
     }
 
     @Test
     void IShouldSaveRecordButUserNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             recordService.saveRecord(email, 1L);
         });
 
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(recordRepository, never()).save(any());
+        verify(recordRepository, never()).upsert(any(), any(), any(), anyBoolean());
     }
 
     @Test
     void IShouldSaveRecordButHabitNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findWithLockByIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
 
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
@@ -135,27 +189,17 @@ public class RecordServiceTests {
         });
 
         assertEquals("Habit with id: '1' not found.", ex.getMessage());
-        verify(recordRepository, never()).save(any());
+        verify(recordRepository, never()).upsert(any(), any(), any(), anyBoolean());
     }
 
     @Test
     void IShouldFindRecordsByHabit(){
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Record> recordsPage = new PageImpl<>(List.of(record, record2), pageable, 2);
-
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
-        when(recordRepository.findByHabitAndUser(habit, user, pageable)).thenReturn(recordsPage);
-        when(modelMapper.map(any(Record.class), eq(RecordDTO.class)))
-        .thenAnswer(invocation -> {
-            Record source = invocation.getArgument(0);
-            if (source.getId().equals(1L)) {
-                return recordDTO;
-            } else if (source.getId().equals(2L)) {
-                return recordDTO2;
-            }
-            return null;
-        });
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")));
+        Page<RecordDTO> recordsPage = new PageImpl<>(List.of(recordDTO, recordDTO2), pageable, 2);
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(1L, 1L)).thenReturn(true);
+        when(recordRepository.findDTOsByHabitIdAndUserId(1L, 1L, pageable)).thenReturn(recordsPage);
         Page<RecordDTO> records = recordService.findRecordsByHabit(1L, email, 0, 10);
 
         List<RecordDTO> results = records.getContent();
@@ -165,50 +209,41 @@ public class RecordServiceTests {
             () -> assertEquals(1L, results.get(0).getHabitId()),
             () -> assertEquals(2L, results.get(1).getHabitId())
         );
+        verify(recordMapper, never()).toDTO(any());
     }
 
     @Test
     void IShouldFindRecordsByHabitButUserNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             recordService.findRecordsByHabit(1L, email, 0, 10);
         });
 
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(habitRepository, never()).findById(any());
+        verify(habitRepository, never()).existsByIdAndUserId(any(), any());
     }
 
     
     @Test
     void IShouldFindRecordsByHabitButHabitNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(habitRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(1L, 1L)).thenReturn(false);
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             recordService.findRecordsByHabit(1L, email, 0, 10);
         });
 
         assertEquals("Habit with id: '1' not found.", ex.getMessage());
-        verify(recordRepository, never()).findByHabitAndUser(habit, user, PageRequest.of(0, 10));
+        verify(recordRepository, never()).findDTOsByHabitIdAndUserId(any(), any(), any());
     }
 
     @Test
     void IShouldFindRecordsByDate(){
         LocalDate date = LocalDate.now();
 
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(recordRepository.findByDateAndUser(date, user)).thenReturn(List.of(record, record2));
-        when(modelMapper.map(any(Record.class), eq(RecordDTO.class)))
-        .thenAnswer(invocation -> {
-            Record source = invocation.getArgument(0);
-            if (source.getId().equals(1L)) {
-                return recordDTO;
-            } else if (source.getId().equals(2L)) {
-                return recordDTO2;
-            }
-            return null;
-        });
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(recordRepository.findDTOsByDateAndUserId(date, 1L)).thenReturn(List.of(recordDTO, recordDTO2));
 
         List<RecordDTO> results = recordService.findRecordsByDate(email, date);
 
@@ -221,13 +256,108 @@ public class RecordServiceTests {
 
     @Test
     void IShouldFindRecordsByDateButUserNotFound(){
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(email)).thenThrow(new ResourceNotFoundException("User", email));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             recordService.findRecordsByDate(email, LocalDate.now());
         });
 
         assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
-        verify(recordRepository, never()).findByDateAndUser(any(), any());
+        verify(recordRepository, never()).findDTOsByDateAndUserId(any(), any());
+    }
+
+    @Test
+    void IShouldSaveRecordsInOneBatch(){
+        habit.setId(1L);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        List<CompletionDTO> completions = List.of(new CompletionDTO(1L, yesterday), new CompletionDTO(1L, null));
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findWithLockByIdInAndUserId(Set.of(1L), 1L)).thenReturn(List.of(habit));
+        //Yesterday was already completed, so only today counts in the daily summaries.
+        when(recordRepository.findCompletedDTOsByHabitIdInAndUserIdAndDateIn(Set.of(1L), 1L, Set.of(yesterday, LocalDate.now())))
+            .thenReturn(List.of(new RecordDTO(1L, yesterday, true)));
+
+        List<RecordDTO> results = recordService.saveRecords(email, completions);
+
+        assertEquals(2, results.size());
+        assertEquals(yesterday, results.get(0).getDate());
+        verify(recordRepository).upsertAll(1L, Map.of(1L, Set.of(yesterday, LocalDate.now())), true);
+        verify(streakService).registerCompletions(habit, Set.of(yesterday, LocalDate.now()));
+        verify(heatmapService).registerCompletions(1L, 1L, Set.of(yesterday, LocalDate.now()));
+        verify(dailySummaryService).registerCompletions(1L, Map.of(LocalDate.now(), 1));
+    }
+
+    @Test
+    void IShouldSaveRecordsButOneHabitIsNotOwned(){
+        habit.setId(1L);
+        List<CompletionDTO> completions = List.of(new CompletionDTO(1L, null), new CompletionDTO(2L, null));
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.findWithLockByIdInAndUserId(Set.of(1L, 2L), 1L)).thenReturn(List.of(habit));
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
+            recordService.saveRecords(email, completions);
+        });
+
+        assertEquals("Habit with id: '2' not found.", ex.getMessage());
+        verify(recordRepository, never()).upsertAll(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void IShouldSaveRecordsButTheBatchIsEmpty(){
+        assertThrows(BusinessRuleException.class, () -> recordService.saveRecords(email, List.of()));
+
+        verify(userIdResolver, never()).resolve(any());
+    }
+
+    @Test
+    void IShouldSaveRecordsButOneIsInTheFuture(){
+        List<CompletionDTO> completions = List.of(new CompletionDTO(1L, LocalDate.now().plusDays(1)));
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+
+        assertThrows(BusinessRuleException.class, () -> recordService.saveRecords(email, completions));
+        verify(habitRepository, never()).findWithLockByIdInAndUserId(any(), any());
+    }
+
+    @Test
+    void IShouldFindRecordsByHabitWithACursor(){
+        record.setDate(LocalDate.of(2025, 3, 2));
+        record2.setDate(LocalDate.of(2025, 3, 1));
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(1L, 1L)).thenReturn(true);
+        when(recordRepository.findByHabitIdAndUserIdOrderByDateDescIdDesc(1L, 1L, Limit.of(2))).thenReturn(List.of(record, record2));
+        when(recordMapper.toDTO(any(Record.class))).thenReturn(recordDTO);
+
+        CursorPageDTO<RecordDTO> result = recordService.findRecordsByHabit(1L, email, null, 1);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(new RecordCursor(LocalDate.of(2025, 3, 2), 1L), RecordCursor.decode(result.getNextCursor()));
+        verify(recordRepository, never()).findByHabitIdAndUserId(any(), any(), any());
+    }
+
+    @Test
+    void IShouldFindTheLastPageOfRecordsByHabitWithACursor(){
+        String cursor = new RecordCursor(LocalDate.of(2025, 3, 2), 1L).encode();
+
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(1L, 1L)).thenReturn(true);
+        when(recordRepository.findPageAfter(1L, 1L, LocalDate.of(2025, 3, 2), 1L, Limit.of(11))).thenReturn(List.of(record2));
+        when(recordMapper.toDTO(any(Record.class))).thenReturn(recordDTO2);
+
+        CursorPageDTO<RecordDTO> result = recordService.findRecordsByHabit(1L, email, cursor, 10);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(null, result.getNextCursor());
+    }
+
+    @Test
+    void IShouldFindRecordsByHabitButTheCursorIsInvalid(){
+        when(userIdResolver.resolve(email)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(1L, 1L)).thenReturn(true);
+
+        assertThrows(BusinessRuleException.class, () -> recordService.findRecordsByHabit(1L, email, "not-a-cursor", 10));
     }
 }
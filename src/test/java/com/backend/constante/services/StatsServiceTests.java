@@ -0,0 +1,116 @@
+package com.backend.constante.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.backend.constante.dto.CompletionRateDTO;
+import com.backend.constante.dto.CompletionWindowsDTO;
+import com.backend.constante.dto.HabitDTO;
+import com.backend.constante.dto.HabitStatsDTO;
+import com.backend.constante.dto.PeriodCountDTO;
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.model.Habit;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.RecordRepository;
+import com.backend.constante.utils.Frequency;
+
+@ExtendWith(MockitoExtension.class)
+public class StatsServiceTests {
+    //A Wednesday.
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 12);
+
+    @InjectMocks
+    private StatsService statsService;
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    @Test
+    void expectedCountsDaysOrWeeksSinceTheHabitWasCreated(){
+        assertEquals(7, StatsService.expected(null, Frequency.daily, TODAY, 7));
+        assertEquals(3, StatsService.expected(TODAY.minusDays(2), Frequency.daily, TODAY, 30));
+        assertEquals(0, StatsService.expected(TODAY.plusDays(1), Frequency.daily, TODAY, 7));
+        //From Thursday 6th to Wednesday 12th there are two ISO weeks.
+        assertEquals(2, StatsService.expected(null, Frequency.weekly, TODAY, 7));
+        assertEquals(1, StatsService.expected(TODAY, Frequency.weekly, TODAY, 365));
+    }
+
+    @Test
+    void findHabitStatsComputesRatesFromTheAggregates(){
+        Habit habit = new Habit();
+        habit.setId(1L);
+        habit.setMadeSince(TODAY.minusDays(9));
+        habit.setFrequency(Frequency.daily);
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+        when(recordRepository.countCompletionWindowsByHabit(1L, 1L, TODAY.minusDays(6), TODAY.minusDays(29),
+                TODAY.minusDays(89), TODAY.minusDays(364), TODAY))
+            .thenReturn(List.of(new CompletionWindowsDTO(1L, 7L, 8L, 8L, 8L)));
+        when(recordRepository.countCompletionsByWeekdayOfHabit(1L, 1L))
+            .thenReturn(List.of(new PeriodCountDTO(1, 2L), new PeriodCountDTO(4, 1L)));
+        when(recordRepository.findBestMonthsOfHabit(any(), any(), any()))
+            .thenReturn(List.of(new PeriodCountDTO(202503, 8L)));
+
+        HabitStatsDTO stats = statsService.findHabitStats(1L, "lucas@gmail.com", TODAY);
+
+        assertEquals(1L, stats.getHabitId());
+        assertEquals(new CompletionRateDTO(7, 7, 7, 1.0), stats.getCompletionRates().get(0));
+        //The habit exists for 10 days, so longer windows expect 10 completions.
+        assertEquals(new CompletionRateDTO(30, 8, 10, 0.8), stats.getCompletionRates().get(1));
+        assertEquals(new CompletionRateDTO(365, 8, 10, 0.8), stats.getCompletionRates().get(3));
+        assertEquals(2L, stats.getCompletionsByWeekday().get(DayOfWeek.SUNDAY));
+        assertEquals(1L, stats.getCompletionsByWeekday().get(DayOfWeek.WEDNESDAY));
+        assertEquals(0L, stats.getCompletionsByWeekday().get(DayOfWeek.MONDAY));
+        assertEquals(YearMonth.of(2025, 3), stats.getBestMonth());
+        assertEquals(8, stats.getBestMonthCompletions());
+    }
+
+    @Test
+    void findHabitStatsThrowsWhenTheHabitIsNotOfTheUser(){
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(2L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> statsService.findHabitStats(2L, "lucas@gmail.com", TODAY));
+    }
+
+    @Test
+    void findUserStatsCapsEachHabitAtItsExpectedCompletions(){
+        when(userIdResolver.resolve("lucas@gmail.com")).thenReturn(1L);
+        when(habitRepository.findDTOsByUserId(1L)).thenReturn(List.of(
+            new HabitDTO(1L, "Read", null, null, Frequency.weekly, null),
+            new HabitDTO(2L, "Run", null, null, Frequency.daily, null)));
+        //The weekly habit was completed every day; only two of its completions count in the last 7 days.
+        when(recordRepository.countCompletionWindowsByUser(1L, TODAY.minusDays(6), TODAY.minusDays(29),
+                TODAY.minusDays(89), TODAY.minusDays(364), TODAY))
+            .thenReturn(List.of(new CompletionWindowsDTO(1L, 7L, 7L, 7L, 7L)));
+        when(recordRepository.countCompletionsByWeekdayOfUser(1L)).thenReturn(List.of());
+        when(recordRepository.findBestMonthsOfUser(any(), any())).thenReturn(List.of());
+
+        HabitStatsDTO stats = statsService.findUserStats("lucas@gmail.com", TODAY);
+
+        assertNull(stats.getHabitId());
+        assertEquals(new CompletionRateDTO(7, 2, 9, 2.0 / 9), stats.getCompletionRates().get(0));
+        assertNull(stats.getBestMonth());
+        assertEquals(0, stats.getBestMonthCompletions());
+    }
+}
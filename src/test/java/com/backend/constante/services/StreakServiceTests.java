@@ -0,0 +1,132 @@
+package com.backend.constante.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.backend.constante.dto.StreakDTO;
+import com.backend.constante.model.Habit;
+import com.backend.constante.model.HabitStreak;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.repositories.HabitStreakRepository;
+import com.backend.constante.repositories.RecordRepository;
+import com.backend.constante.utils.Frequency;
+
+@ExtendWith(MockitoExtension.class)
+public class StreakServiceTests {
+    @InjectMocks
+    private StreakService streakService;
+
+    @Mock
+    private HabitStreakRepository habitStreakRepository;
+
+    @Mock
+    private RecordRepository recordRepository;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    private Habit habit;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp(){
+        habit = new Habit();
+        habit.setId(1L);
+        habit.setName("Play guitar");
+        habit.setFrequency(Frequency.daily);
+
+        today = LocalDate.now();
+    }
+
+    @Test
+    void IShouldExtendTheStreakOnTheNextDay(){
+        HabitStreak streak = new HabitStreak(1L, 3, 5, today.minusDays(1));
+        when(habitStreakRepository.findWithLockByHabitId(1L)).thenReturn(Optional.of(streak));
+
+        streakService.registerCompletion(habit, today);
+
+        assertEquals(4, streak.getCurrentStreak());
+        assertEquals(5, streak.getLongestStreak());
+        assertEquals(today, streak.getLastPeriod());
+    }
+
+    @Test
+    void IShouldRestartTheStreakAfterAGap(){
+        HabitStreak streak = new HabitStreak(1L, 3, 3, today.minusDays(2));
+        when(habitStreakRepository.findWithLockByHabitId(1L)).thenReturn(Optional.of(streak));
+
+        streakService.registerCompletion(habit, today);
+
+        assertEquals(1, streak.getCurrentStreak());
+        assertEquals(3, streak.getLongestStreak());
+    }
+
+    @Test
+    void IShouldIgnoreASecondCompletionInTheSameWeek(){
+        habit.setFrequency(Frequency.weekly);
+        LocalDate monday = Frequency.weekly.periodStart(today);
+        HabitStreak streak = new HabitStreak(1L, 2, 2, monday);
+        when(habitStreakRepository.findWithLockByHabitId(1L)).thenReturn(Optional.of(streak));
+
+        streakService.registerCompletion(habit, monday.plusDays(3));
+
+        assertEquals(2, streak.getCurrentStreak());
+        verify(habitStreakRepository, never()).save(any());
+    }
+
+    @Test
+    void IShouldRebuildTheStreaksFromHistory(){
+        when(recordRepository.findCompletedDatesByHabitId(1L)).thenReturn(List.of(
+            today.minusDays(6), today.minusDays(5), today.minusDays(4),
+            today.minusDays(1), today));
+        when(habitStreakRepository.findById(1L)).thenReturn(Optional.empty());
+        when(habitStreakRepository.save(any(HabitStreak.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        HabitStreak streak = streakService.rebuild(habit);
+
+        assertEquals(2, streak.getCurrentStreak());
+        assertEquals(3, streak.getLongestStreak());
+        assertEquals(today, streak.getLastPeriod());
+    }
+
+    @Test
+    void IShouldReportABrokenStreakAsZero(){
+        when(userIdResolver.resolve("example@gmail.com")).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+        when(habitStreakRepository.findById(1L)).thenReturn(Optional.of(new HabitStreak(1L, 4, 4, today.minusDays(3))));
+
+        StreakDTO result = streakService.findStreak(1L, "example@gmail.com");
+
+        assertEquals(0, result.getCurrentStreak());
+        assertEquals(4, result.getLongestStreak());
+    }
+
+    @Test
+    void IShouldComputeTheStreaksOfAHabitWithoutSummaryWithoutSavingThem(){
+        when(userIdResolver.resolve("example@gmail.com")).thenReturn(1L);
+        when(habitRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(habit));
+        when(habitStreakRepository.findById(1L)).thenReturn(Optional.empty());
+        when(recordRepository.findCompletedDatesByHabitId(1L)).thenReturn(List.of(today.minusDays(1), today));
+
+        StreakDTO result = streakService.findStreak(1L, "example@gmail.com");
+
+        assertEquals(2, result.getCurrentStreak());
+        verify(habitStreakRepository, never()).save(any());
+    }
+}
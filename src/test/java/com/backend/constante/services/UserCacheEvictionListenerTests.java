@@ -0,0 +1,55 @@
+package com.backend.constante.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.backend.constante.model.User;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheEvictionListenerTests {
+    @Mock
+    private ObjectProvider<UserIdResolver> userIdResolverProvider;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    private UserCacheEvictionListener listener;
+
+    @BeforeEach
+    void setUp(){
+        when(userIdResolverProvider.getObject()).thenReturn(userIdResolver);
+        listener = new UserCacheEvictionListener(userIdResolverProvider);
+    }
+
+    @Test
+    void IShouldEvictThePreviousEmailAfterAnEmailChange(){
+        User user = new User();
+        user.setEmail("old@gmail.com");
+        listener.remember(user);
+
+        user.setEmail("new@gmail.com");
+        listener.evict(user);
+
+        verify(userIdResolver).evict("new@gmail.com");
+        verify(userIdResolver).evict("old@gmail.com");
+    }
+
+    @Test
+    void IShouldEvictOnlyTheEmailWhenItDidNotChange(){
+        User user = new User();
+        user.setEmail("example@gmail.com");
+        listener.remember(user);
+
+        listener.evict(user);
+
+        verify(userIdResolver).evict("example@gmail.com");
+        verify(userIdResolver, never()).evict("old@gmail.com");
+    }
+}
@@ -0,0 +1,60 @@
+package com.backend.constante.services;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.repositories.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class UserIdResolverTests {
+    @Mock
+    private UserRepository userRepository;
+
+    private UserIdResolver userIdResolver;
+    private String email;
+
+    @BeforeEach
+    void setUp(){
+        userIdResolver = new UserIdResolver(userRepository, 100, false);
+        email = "example@gmail.com";
+    }
+
+    @Test
+    void IShouldResolveTheIdOnlyOnce(){
+        when(userRepository.findIdByEmail(email)).thenReturn(Optional.of(1L));
+
+        assertEquals(1L, userIdResolver.resolve(email));
+        assertEquals(1L, userIdResolver.resolve(email));
+        verify(userRepository, times(1)).findIdByEmail(email);
+    }
+
+    @Test
+    void IShouldResolveAgainAfterEviction(){
+        when(userRepository.findIdByEmail(email)).thenReturn(Optional.of(1L), Optional.of(2L));
+
+        userIdResolver.resolve(email);
+        userIdResolver.evict(email);
+
+        assertEquals(2L, userIdResolver.resolve(email));
+    }
+
+    @Test
+    void IShouldResolveButUserNotFound(){
+        when(userRepository.findIdByEmail(email)).thenReturn(Optional.empty());
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> userIdResolver.resolve(email));
+
+        assertEquals("User with id: 'example@gmail.com' not found.", ex.getMessage());
+    }
+}
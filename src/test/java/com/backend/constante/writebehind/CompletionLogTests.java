@@ -0,0 +1,63 @@
+package com.backend.constante.writebehind;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompletionLogTests {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 5);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void unflushedReturnsTheEntriesAfterTheCheckpointAfterReopening(){
+        Path path = directory.resolve("completions.log");
+        try(CompletionLog log = new CompletionLog(path)){
+            log.append(new PendingCompletion(1, 1L, 10L, DAY, true));
+            log.append(new PendingCompletion(2, 1L, 11L, DAY, true));
+            log.append(new PendingCompletion(3, 2L, 12L, DAY, false));
+            log.checkpoint(1);
+        }
+
+        try(CompletionLog reopened = new CompletionLog(path)){
+            assertThat(reopened.unflushed()).containsExactly(
+                new PendingCompletion(2, 1L, 11L, DAY, true),
+                new PendingCompletion(3, 2L, 12L, DAY, false));
+        }
+    }
+
+    @Test
+    void unflushedSkipsALineCutShortByACrash() throws IOException {
+        Path path = directory.resolve("completions.log");
+        try(CompletionLog log = new CompletionLog(path)){
+            log.append(new PendingCompletion(1, 1L, 10L, DAY, true));
+        }
+        Files.writeString(path, "2,1,11,2025-0", StandardOpenOption.APPEND);
+
+        try(CompletionLog reopened = new CompletionLog(path)){
+            assertThat(reopened.unflushed()).containsExactly(new PendingCompletion(1, 1L, 10L, DAY, true));
+        }
+    }
+
+    @Test
+    void truncateEmptiesTheLogAndForgetsTheCheckpoint() throws IOException {
+        Path path = directory.resolve("completions.log");
+        try(CompletionLog log = new CompletionLog(path)){
+            log.append(new PendingCompletion(5, 1L, 10L, DAY, true));
+            log.checkpoint(5);
+            log.truncate();
+            log.append(new PendingCompletion(1, 1L, 11L, DAY, true));
+
+            assertThat(log.checkpoint()).isZero();
+            assertThat(log.unflushed()).containsExactly(new PendingCompletion(1, 1L, 11L, DAY, true));
+            assertThat(Files.readAllLines(path)).hasSize(1);
+        }
+    }
+}
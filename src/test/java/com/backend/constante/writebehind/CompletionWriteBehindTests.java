@@ -0,0 +1,208 @@
+package com.backend.constante.writebehind;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.backend.constante.dto.RecordDTO;
+import com.backend.constante.exception.ResourceNotFoundException;
+import com.backend.constante.exception.ServiceUnavailableException;
+import com.backend.constante.repositories.HabitRepository;
+import com.backend.constante.services.RecordService;
+import com.backend.constante.services.UserIdResolver;
+
+@ExtendWith(MockitoExtension.class)
+public class CompletionWriteBehindTests {
+    private static final String EMAIL = "lucas@gmail.com";
+
+    @Mock
+    private RecordService recordService;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    @TempDir
+    private Path directory;
+
+    private final List<PendingCompletion> flushed = new ArrayList<>();
+    //Holds the flusher inside applyPending until released.
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private CompletionWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown(){
+        if(writeBehind != null) writeBehind.stop();
+    }
+
+    private CompletionWriteBehind writeBehind(boolean enabled, int capacity){
+        lenient().doAnswer(invocation -> {
+            gate.await(5, TimeUnit.SECONDS);
+            synchronized(flushed){
+                flushed.addAll(invocation.getArgument(0));
+            }
+            return null;
+        }).when(recordService).applyPending(any());
+        writeBehind = new CompletionWriteBehind(recordService, habitRepository, userIdResolver, enabled,
+            directory.resolve("completions.log"), capacity, 100, 3, Duration.ofMillis(10), Duration.ofSeconds(5));
+        return writeBehind;
+    }
+
+    @Test
+    void submitDeclinesWhenDisabled(){
+        CompletionWriteBehind disabled = new CompletionWriteBehind(recordService, habitRepository, userIdResolver, false,
+            directory.resolve("completions.log"), 10, 100, 3, Duration.ofMillis(10), Duration.ofSeconds(5));
+        disabled.start();
+
+        assertThat(disabled.submit(EMAIL, 1L, null, true)).isEmpty();
+        assertThat(Files.exists(directory.resolve("completions.log"))).isFalse();
+    }
+
+    @Test
+    void startReplaysTheEntriesLeftInTheLog(){
+        try(CompletionLog log = new CompletionLog(directory.resolve("completions.log"))){
+            log.append(new PendingCompletion(1, 1L, 10L, LocalDate.of(2025, 3, 5), true));
+            log.append(new PendingCompletion(2, 1L, 11L, LocalDate.of(2025, 3, 5), true));
+            log.checkpoint(1);
+        }
+
+        writeBehind(true, 10).start();
+
+        assertThat(flushed).containsExactly(new PendingCompletion(2, 1L, 11L, LocalDate.of(2025, 3, 5), true));
+        try(CompletionLog log = new CompletionLog(directory.resolve("completions.log"))){
+            assertThat(log.unflushed()).isEmpty();
+        }
+    }
+
+    @Test
+    void stopDrainsEveryAcceptedCompletion(){
+        when(userIdResolver.resolve(EMAIL)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(any(), any())).thenReturn(true);
+        CompletionWriteBehind writeBehind = writeBehind(true, 1000);
+        writeBehind.start();
+
+        for(long habitId = 1; habitId <= 250; habitId++){
+            Optional<RecordDTO> accepted = writeBehind.submit(EMAIL, habitId, null, true);
+            assertThat(accepted).isPresent();
+        }
+        writeBehind.stop();
+
+        assertThat(flushed).hasSize(250);
+        assertThat(flushed).extracting(PendingCompletion::habitId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void concurrentSubmitsAreAllLoggedAndFlushed() throws InterruptedException {
+        when(userIdResolver.resolve(EMAIL)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(any(), any())).thenReturn(true);
+        CompletionWriteBehind writeBehind = writeBehind(true, 1000);
+        writeBehind.start();
+
+        List<Thread> clients = new ArrayList<>();
+        for(int client = 0; client < 8; client++){
+            long firstHabit = client * 100L;
+            Thread thread = new Thread(() -> {
+                for(long habitId = firstHabit; habitId < firstHabit + 100; habitId++){
+                    writeBehind.submit(EMAIL, habitId, null, true);
+                }
+            });
+            thread.start();
+            clients.add(thread);
+        }
+        for(Thread client : clients) client.join();
+        writeBehind.stop();
+
+        assertThat(flushed).hasSize(800);
+        assertThat(flushed).extracting(PendingCompletion::habitId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void submitRejectsWhenTheQueueIsFull() throws InterruptedException {
+        when(userIdResolver.resolve(EMAIL)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(any(), any())).thenReturn(true);
+        CompletionWriteBehind writeBehind = writeBehind(true, 1);
+        //The flusher is stuck on the first batch, so the queue fills up.
+        gate = new CountDownLatch(1);
+        writeBehind.start();
+
+        assertThat(writeBehind.submit(EMAIL, 1L, null, true)).isPresent();
+        while(writeBehind.pending() > 0) Thread.sleep(5);
+        assertThat(writeBehind.submit(EMAIL, 2L, null, true)).isPresent();
+        assertThatThrownBy(() -> writeBehind.submit(EMAIL, 3L, null, true)).isInstanceOf(ServiceUnavailableException.class);
+
+        gate.countDown();
+        writeBehind.stop();
+        assertThat(flushed).extracting(PendingCompletion::habitId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void submitChecksTheOwnershipOfTheHabit(){
+        when(userIdResolver.resolve(EMAIL)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(9L, 1L)).thenReturn(false);
+        CompletionWriteBehind writeBehind = writeBehind(true, 10);
+        writeBehind.start();
+
+        assertThatThrownBy(() -> writeBehind.submit(EMAIL, 9L, null, true)).isInstanceOf(ResourceNotFoundException.class);
+        writeBehind.stop();
+
+        verify(recordService, never()).applyPending(any());
+    }
+
+    @Test
+    void aCompletionThatCanNotBeWrittenIsDeadLetteredWithoutHoldingBackTheOthers() throws Exception {
+        when(userIdResolver.resolve(EMAIL)).thenReturn(1L);
+        when(habitRepository.existsByIdAndUserId(any(), any())).thenReturn(true);
+        CompletionWriteBehind writeBehind = writeBehind(true, 10);
+        //Habit 9 is deleted after its completion was accepted.
+        doAnswer(invocation -> {
+            List<PendingCompletion> batch = invocation.getArgument(0);
+            if(batch.stream().anyMatch(entry -> entry.habitId() == 9L)){
+                throw new DataIntegrityViolationException("records_habit_id_fkey");
+            }
+            synchronized(flushed){
+                flushed.addAll(batch);
+            }
+            return null;
+        }).when(recordService).applyPending(any());
+        writeBehind.start();
+
+        writeBehind.submit(EMAIL, 1L, null, true);
+        writeBehind.submit(EMAIL, 9L, null, true);
+        writeBehind.submit(EMAIL, 2L, null, true);
+        while(writeBehind.pending() > 0 || flushed.size() < 2) Thread.sleep(5);
+        assertThat(writeBehind.submit(EMAIL, 3L, null, true)).isPresent();
+        writeBehind.stop();
+
+        assertThat(flushed).extracting(PendingCompletion::habitId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(Files.readAllLines(directory.resolve("completions.log.dead")))
+            .extracting(PendingCompletion::parse).extracting(PendingCompletion::habitId).containsExactly(9L);
+        try(CompletionLog log = new CompletionLog(directory.resolve("completions.log"))){
+            assertThat(log.unflushed()).isEmpty();
+        }
+    }
+}